@@ -0,0 +1,82 @@
+package chess;
+
+import chess.heuristics.*;
+import chess.pieces.*;
+import chess.players.*;
+
+import java.util.*;
+
+/**
+ * Measures how long the minimax player takes to search to a fixed depth with
+ * different numbers of threads.
+ */
+public final class Benchmark {
+    /**
+     * The number of random moves played to reach each benchmark position.
+     */
+    private static final int[] OPENING_MOVES = {0, 8, 16, 24};
+
+    /**
+     * The seed of the random moves played to reach the benchmark positions.
+     */
+    private static final long SEED = 20261018L;
+
+    private Benchmark() {}
+
+    /**
+     * Prints the time to reach a fixed depth from a few positions for each
+     * thread count, doubling from one thread up to the maximum.
+     *
+     * @param args  the depth to search to and the maximum number of threads,
+     *              by default 5 and the number of available processors
+     */
+    public static void main(String[] args) {
+        int depth = args.length > 0 ? Integer.parseInt(args[0]) : 5;
+        int maxThreads = args.length > 1 ? Integer.parseInt(args[1])
+                                         : Runtime.getRuntime().availableProcessors();
+        // Warm up the JIT compiler so the first thread count is not penalized
+        timeToDepth(depth, 1);
+        System.out.println("Time to depth " + depth + " (ms)");
+        System.out.printf("%8s %10s %8s%n", "threads", "time", "speedup");
+        long serialTime = 0;
+        for (int threads = 1; threads <= maxThreads; threads *= 2) {
+            long time = timeToDepth(depth, threads);
+            if (threads == 1) {
+                serialTime = time;
+            }
+            System.out.printf("%8d %10d %8.2f%n", threads, time, (double) serialTime / time);
+        }
+    }
+
+    /**
+     * Returns the total number of milliseconds a minimax player with the
+     * given number of threads takes to search every benchmark position to
+     * the given depth. Each position is searched with an empty transposition
+     * table.
+     *
+     * @param  depth    the depth to search to
+     * @param  threads  the number of threads to search with
+     * @return          the total time taken in milliseconds
+     */
+    private static long timeToDepth(int depth, int threads) {
+        long total = 0;
+        for (int openingMoves : OPENING_MOVES) {
+            Board board = new Board();
+            Player[] random = {
+                    new RandomPlayer(board, Piece.Color.WHITE, SEED),
+                    new RandomPlayer(board, Piece.Color.BLACK, SEED)
+            };
+            for (int i = 0; i < openingMoves; i++) {
+                board.doMove(random[i % 2].getMove());
+            }
+            Piece.Color color = openingMoves % 2 == 0 ? Piece.Color.WHITE : Piece.Color.BLACK;
+            MinimaxPlayer player = new MinimaxPlayer(board, color, new CombinationHeuristic(),
+                                                     depth);
+            player.setThreads(threads);
+            long start = System.nanoTime();
+            player.getMove();
+            total += (System.nanoTime() - start) / 1000000;
+        }
+        return total;
+    }
+}
@@ -1,5 +1,6 @@
 package chess;
 
+import chess.bitboard.*;
 import chess.pieces.*;
 
 import java.util.*;
@@ -29,6 +30,29 @@ public final class Board {
      */
     public static final int NUM_ROWS = 8;
 
+    /**
+     * The notation of each piece in state strings, indexed by piece code.
+     */
+    private static final String[] STATE_NOTATION = {
+            "WP", "WN", "WB", "WR", "WQ", "WK", null, null,
+            "BP", "BN", "BB", "BR", "BQ", "BK"
+    };
+
+    /**
+     * The castling rights that need the piece on each square to not have
+     * moved, indexed by row and column.
+     */
+    private static final int[][] CASTLING_RIGHTS = new int[NUM_ROWS][NUM_ROWS];
+
+    static {
+        CASTLING_RIGHTS[0][0] = Position.BLACK_QUEENSIDE;
+        CASTLING_RIGHTS[0][4] = Position.BLACK_KINGSIDE | Position.BLACK_QUEENSIDE;
+        CASTLING_RIGHTS[0][7] = Position.BLACK_KINGSIDE;
+        CASTLING_RIGHTS[7][0] = Position.WHITE_QUEENSIDE;
+        CASTLING_RIGHTS[7][4] = Position.WHITE_KINGSIDE | Position.WHITE_QUEENSIDE;
+        CASTLING_RIGHTS[7][7] = Position.WHITE_KINGSIDE;
+    }
+
     /**
      * A 2D array of squares representing the actual board.
      */
@@ -39,6 +63,25 @@ public final class Board {
      */
     private final Deque<Move> moves;
 
+    /**
+     * The bitboard representation of the pieces on this board. Kept in sync
+     * with the squares of this board and used for move generation, check
+     * detection, and evaluation.
+     */
+    private final Position position;
+
+    /**
+     * Read-only views of the pieces of each color on this board.
+     */
+    private final Set<Piece> whitePieces;
+    private final Set<Piece> blackPieces;
+
+    /**
+     * The buffer packed moves are generated into before being turned into
+     * moves on this board.
+     */
+    private final int[] moveBuffer;
+
     /**
      * Constructs a new 8x8 chessboard with pieces in their starting positions.
      */
@@ -52,6 +95,67 @@ public final class Board {
         initializePieces(7, 6, WHITE);
         initializePieces(0, 1, BLACK);
         moves = new ArrayDeque<>();
+        position = new Position();
+        moveBuffer = new int[MoveGenerator.MAX_MOVES];
+        whitePieces = new PieceSet(WHITE);
+        blackPieces = new PieceSet(BLACK);
+        for (Square[] squareArr : board) {
+            for (Square s : squareArr) {
+                updatePosition(s);
+            }
+        }
+        position.setCastlingRights(castlingRights());
+    }
+
+    /**
+     * Constructs a new chessboard that is a copy of the given board, with its
+     * own squares, pieces, and position. The position keeps the move history
+     * of the given board, but the moves made on it so far are not copied, so
+     * they cannot be undone on the copy.
+     *
+     * @param other  the board to copy
+     */
+    public Board(Board other) {
+        board = new Square[NUM_ROWS][NUM_ROWS];
+        for (int i = 0; i < NUM_ROWS; i++) {
+            for (int j = 0; j < NUM_ROWS; j++) {
+                board[i][j] = new Square(i, j, this);
+                Piece piece = other.board[i][j].getPiece();
+                if (piece != null) {
+                    copyPiece(piece, board[i][j]).setAlreadyMoved(piece.getAlreadyMoved());
+                }
+            }
+        }
+        moves = new ArrayDeque<>();
+        position = new Position(other.position);
+        moveBuffer = new int[MoveGenerator.MAX_MOVES];
+        whitePieces = new PieceSet(WHITE);
+        blackPieces = new PieceSet(BLACK);
+    }
+
+    /**
+     * Returns a new piece of the same type and color as the given piece on
+     * the given square.
+     *
+     * @param  piece   the piece to copy
+     * @param  square  the square to place the new piece on
+     * @return         the new piece
+     */
+    private static Piece copyPiece(Piece piece, Square square) {
+        switch (piece.getType()) {
+            case Position.PAWN:
+                return new Pawn(square, piece.getColor());
+            case Position.KNIGHT:
+                return new Knight(square, piece.getColor());
+            case Position.BISHOP:
+                return new Bishop(square, piece.getColor());
+            case Position.ROOK:
+                return new Rook(square, piece.getColor());
+            case Position.QUEEN:
+                return new Queen(square, piece.getColor());
+            default:
+                return new King(square, piece.getColor());
+        }
     }
 
     /**
@@ -77,21 +181,25 @@ public final class Board {
 
     /**
      * Returns a set containing every piece of the given color on this board.
+     * The set is a read-only view backed by this board, so it changes as
+     * moves are made and is not rebuilt or hashed on each call. Its pieces are
+     * those on the squares of this board, which only follow moves made with
+     * doMove and undoLastMove, not moves made on the position by a search.
      *
      * @param  color  the color of the pieces to get
-     * @return        a set containing  every piece of the given color on this board
+     * @return        a set containing every piece of the given color on this board
      */
     public Set<Piece> getPieces(Piece.Color color) {
-        Set<Piece> pieces = new HashSet<>();
-        for (Square[] squareArr : board) {
-            for (Square s : squareArr) {
-                Piece piece = s.getPiece();
-                if (piece != null && piece.getColor() == color) {
-                    pieces.add(piece);
-                }
-            }
-        }
-        return pieces;
+        return color == WHITE ? whitePieces : blackPieces;
+    }
+
+    /**
+     * Returns the bitboard representation of the pieces on this board.
+     *
+     * @return the bitboard representation of the pieces on this board
+     */
+    public Position getPosition() {
+        return position;
     }
 
     /**
@@ -117,18 +225,51 @@ public final class Board {
      *                         given color can make
      */
     public Set<Move> getPossibleMoves(Piece.Color color, boolean onlyLegalMoves) {
+        int count = MoveGenerator.generate(position, color.getIndex(), onlyLegalMoves, moveBuffer);
         Set<Move> possibleMoves = new HashSet<>();
-        for (Square[] squareArr : board) {
-            for (Square s : squareArr) {
-                Piece piece = s.getPiece();
-                if (piece != null && piece.getColor() == color) {
-                    possibleMoves.addAll(piece.getPossibleMoves(onlyLegalMoves));
-                }
-            }
+        for (int i = 0; i < count; i++) {
+            possibleMoves.add(toMove(moveBuffer[i]));
         }
         return possibleMoves;
     }
 
+    /**
+     * Returns a set containing all the moves the given piece can make. May
+     * return illegal moves if onlyLegalMoves is false.
+     *
+     * @param  piece           the piece for which to get moves
+     * @param  onlyLegalMoves  whether to only consider legal moves or not
+     * @return                 a set containing all the moves the given piece can make
+     */
+    public Set<Move> getPossibleMoves(Piece piece, boolean onlyLegalMoves) {
+        int count = MoveGenerator.generate(position, index(piece.getPosition()), onlyLegalMoves,
+                                           moveBuffer, 0);
+        Set<Move> possibleMoves = new HashSet<>();
+        for (int i = 0; i < count; i++) {
+            possibleMoves.add(toMove(moveBuffer[i]));
+        }
+        return possibleMoves;
+    }
+
+    /**
+     * Returns the move on this board represented by the given packed move.
+     * The squares of this board must be in the position the move is made from.
+     *
+     * @param  packedMove  the packed move
+     * @return             the move on this board represented by the packed move
+     */
+    public Move toMove(int packedMove) {
+        Square start = squareAt(Moves.from(packedMove));
+        Square end = squareAt(Moves.to(packedMove));
+        if (Moves.isCastle(packedMove)) {
+            int row = start.getRow();
+            return end.getCol() > start.getCol()
+                    ? new Move(start, end, squareAt(row, 7), squareAt(row, 5))
+                    : new Move(start, end, squareAt(row, 0), squareAt(row, 3));
+        }
+        return new Move(start, end);
+    }
+
     /**
      * Returns a deque containing all the moves that have been made so far.
      *
@@ -180,6 +321,75 @@ public final class Board {
         return board[row][col];
     }
 
+    /**
+     * Returns the square on this board with the given bitboard square index.
+     *
+     * @param  index  the bitboard index of the square to get
+     * @return        the square on this board with the given index
+     */
+    private Square squareAt(int index) {
+        return board[Bitboards.row(index)][Bitboards.col(index)];
+    }
+
+    /**
+     * Returns the bitboard square index of the given square.
+     *
+     * @param  s  the square to get the index of
+     * @return    the bitboard square index of the given square
+     */
+    private static int index(Square s) {
+        return Bitboards.square(s.getRow(), s.getCol());
+    }
+
+    /**
+     * Updates the bitboard representation of this board to match the piece
+     * occupying the given square.
+     *
+     * @param s  the square to update the bitboard representation for
+     */
+    private void updatePosition(Square s) {
+        int index = index(s);
+        position.removePiece(index);
+        Piece piece = s.getPiece();
+        if (piece != null) {
+            position.putPiece(index, Position.piece(piece.getColor().getIndex(), piece.getType()));
+        }
+    }
+
+    /**
+     * Returns the castling rights of both players as bit flags. A castling
+     * right remains as long as neither the king nor the rook it castles with
+     * have moved.
+     *
+     * @return the castling rights of both players as bit flags
+     */
+    private int castlingRights() {
+        int rights = 0;
+        if (notMoved(7, 4)) {
+            rights |= (notMoved(7, 7) ? Position.WHITE_KINGSIDE : 0)
+                    | (notMoved(7, 0) ? Position.WHITE_QUEENSIDE : 0);
+        }
+        if (notMoved(0, 4)) {
+            rights |= (notMoved(0, 7) ? Position.BLACK_KINGSIDE : 0)
+                    | (notMoved(0, 0) ? Position.BLACK_QUEENSIDE : 0);
+        }
+        return rights;
+    }
+
+    /**
+     * Returns true if the square at the given row and column is occupied by a
+     * king or rook that has not moved, false otherwise.
+     *
+     * @param  row  the row of the square
+     * @param  col  the column of the square
+     * @return      true if the square is occupied by a king or rook that has
+     *              not moved, false otherwise
+     */
+    private boolean notMoved(int row, int col) {
+        Piece p = board[row][col].getPiece();
+        return (p instanceof King || p instanceof Rook) && !p.getAlreadyMoved();
+    }
+
     /**
      * Executes the given move.
      *
@@ -197,6 +407,7 @@ public final class Board {
      */
     public void doMove(Move move, boolean humanPlayer) {
         moves.push(move);
+        int packedMove = move.getPackedMove();
         if (move.isCaptureMove()) {
             move.getEnd().getPiece().capture();
         }
@@ -212,11 +423,13 @@ public final class Board {
                 promoted = new Queen(move.getEnd(), color);
             }
             promoted.setAlreadyMoved(true);
+            packedMove = Moves.withPromotion(packedMove, promoted.getType());
         }
         if (move.isCastleMove()) {
             move.getRookStart().getPiece().setAlreadyMoved(true);
             move.getRookStart().getPiece().setPosition(move.getRookEnd());
         }
+        position.makeMove(packedMove);
     }
 
     /**
@@ -236,6 +449,7 @@ public final class Board {
             move.getRookEnd().getPiece().setAlreadyMoved(false);
             move.getRookEnd().getPiece().setPosition(move.getRookStart());
         }
+        position.unmakeMove();
     }
 
     /**
@@ -245,8 +459,7 @@ public final class Board {
      * @return        true if the player of the given color is in check, false otherwise
      */
     public boolean inCheck(Piece.Color color) {
-        return getPossibleMoves(oppositeColor(color), false).stream()
-                .anyMatch(m -> m.getEnd().getPiece() instanceof King);
+        return position.inCheck(color.getIndex());
     }
 
     /**
@@ -256,7 +469,32 @@ public final class Board {
      * @return        true if the player of the given color is in checkmate, false otherwise
      */
     public boolean inCheckmate(Piece.Color color) {
-        return inCheck(color) && getPossibleMoves(color).isEmpty();
+        return inCheck(color) && !hasLegalMoves(color);
+    }
+
+    /**
+     * Returns true if the given square is attacked by a piece of the given
+     * color, false otherwise.
+     *
+     * @param  square   the square to evaluate if attacked
+     * @param  byColor  the color of the attacking pieces
+     * @return          true if the given square is attacked by a piece of the
+     *                  given color, false otherwise
+     */
+    public boolean isSquareAttacked(Square square, Piece.Color byColor) {
+        return position.isSquareAttacked(index(square), byColor.getIndex());
+    }
+
+    /**
+     * Returns true if the player of the given color has at least one legal
+     * move, false otherwise.
+     *
+     * @param  color  the color to evaluate
+     * @return        true if the player of the given color has a legal move,
+     *                false otherwise
+     */
+    private boolean hasLegalMoves(Piece.Color color) {
+        return MoveGenerator.countLegalMoves(position, color.getIndex()) > 0;
     }
 
     /**
@@ -265,17 +503,7 @@ public final class Board {
      * @return true if there is a stalemate, false otherwise
      */
     public boolean inStalemate() {
-        boolean lastThreeMovesSame = false;
-        if (moves.size() >= 6) {
-            Move[] temp = new Move[6];
-            Iterator<Move> iter = moves.descendingIterator();
-            for (int i = 0; i < temp.length; i++) {
-                temp[i] = iter.next();
-            }
-            lastThreeMovesSame = temp[0].sameAs(temp[2]) && temp[2].sameAs(temp[4])
-                              && temp[1].sameAs(temp[3]) && temp[3].sameAs(temp[5]);
-        }
-        return (getPieces(WHITE).size() <= 1 && getPieces(BLACK).size() <= 1) || lastThreeMovesSame
+        return Long.bitCount(position.occupied()) <= 2 || position.lastThreeMovesSame()
                 || inStalemate(WHITE) || inStalemate(BLACK);
     }
 
@@ -288,7 +516,7 @@ public final class Board {
      *                and is not in checkmate, false otherwise
      */
     private boolean inStalemate(Piece.Color color) {
-        return !inCheck(color) && getPossibleMoves(color).isEmpty();
+        return !inCheck(color) && !hasLegalMoves(color);
     }
 
     /**
@@ -297,8 +525,18 @@ public final class Board {
      * @return true if either color has less than 4 non-pawn pieces left, false otherwise.
      */
     public boolean fewPiecesLeft() {
-        return getPieces(BLACK).stream().filter(p -> !(p instanceof Pawn)).count() < 4 ||
-                getPieces(WHITE).stream().filter(p -> !(p instanceof Pawn)).count() < 4;
+        return nonPawnPieces(BLACK) < 4 || nonPawnPieces(WHITE) < 4;
+    }
+
+    /**
+     * Returns the number of non-pawn pieces of the given color left on this board.
+     *
+     * @param  color  the color of the pieces to count
+     * @return        the number of non-pawn pieces of the given color
+     */
+    private int nonPawnPieces(Piece.Color color) {
+        int c = color.getIndex();
+        return position.count(c) - position.count(c, Position.PAWN);
     }
 
     /**
@@ -344,6 +582,17 @@ public final class Board {
         }
     }
 
+    /**
+     * Returns the 64-bit Zobrist hash of the current state of this board. The
+     * hash covers the placement of the pieces, the castling rights, and the
+     * side to move, and is updated incrementally as moves are made and undone.
+     *
+     * @return the Zobrist hash of the current state of this board
+     */
+    public long hash() {
+        return position.hash();
+    }
+
     /**
      * Returns a string representing the current state of this board. More
      * detailed and shorter than toString().
@@ -352,15 +601,14 @@ public final class Board {
      */
     public String stateString() {
         StringBuilder result = new StringBuilder();
-        for (Square[] squareArr : board) {
-            for (Square s : squareArr) {
-                if (s.isEmpty()) {
+        for (int row = 0; row < NUM_ROWS; row++) {
+            for (int col = 0; col < NUM_ROWS; col++) {
+                int piece = position.pieceAt(Bitboards.square(row, col));
+                if (piece == Position.EMPTY) {
                     result.append("-");
                 } else {
-                    Piece p = s.getPiece();
-                    result.append(p.getColor().toString().charAt(0));
-                    result.append(p instanceof Pawn ? "P" : p);
-                    if ((p instanceof Rook || p instanceof King) && !p.getAlreadyMoved()) {
+                    result.append(STATE_NOTATION[piece]);
+                    if ((position.castlingRights() & CASTLING_RIGHTS[row][col]) != 0) {
                         result.append("E");
                     }
                 }
@@ -392,4 +640,61 @@ public final class Board {
         }
         return result.append("\n").toString();
     }
+
+    /**
+     * A read-only view of the pieces of one color on this board, backed by
+     * the bitboards of its position.
+     */
+    private final class PieceSet extends AbstractSet<Piece> {
+        /**
+         * The bitboard index of the color of the pieces in this set.
+         */
+        private final int color;
+
+        /**
+         * Constructs a new view of the pieces of the given color.
+         *
+         * @param color  the color of the pieces in this set
+         */
+        private PieceSet(Piece.Color color) {
+            this.color = color.getIndex();
+        }
+
+        /**
+         * Returns an iterator over the pieces in this set.
+         *
+         * @return an iterator over the pieces in this set
+         */
+        @Override
+        public Iterator<Piece> iterator() {
+            return new Iterator<Piece>() {
+                private long remaining = position.pieces(color);
+
+                @Override
+                public boolean hasNext() {
+                    return remaining != 0;
+                }
+
+                @Override
+                public Piece next() {
+                    if (remaining == 0) {
+                        throw new NoSuchElementException();
+                    }
+                    int square = Bitboards.first(remaining);
+                    remaining &= remaining - 1;
+                    return squareAt(square).getPiece();
+                }
+            };
+        }
+
+        /**
+         * Returns the number of pieces in this set.
+         *
+         * @return the number of pieces in this set
+         */
+        @Override
+        public int size() {
+            return position.count(color);
+        }
+    }
 }
@@ -19,6 +19,15 @@ public final class Chess {
         Board board = new Board();
         Player p1 = selectPlayer(board, Piece.Color.WHITE, 1);
         Player p2 = selectPlayer(board, Piece.Color.BLACK, 2);
+        ponderAgainstHuman(p1, p2);
+        ponderAgainstHuman(p2, p1);
+        if (p1 instanceof MinimaxPlayer || p2 instanceof MinimaxPlayer) {
+            long[] clock = selectClock();
+            if (clock != null) {
+                setClock(p1, clock);
+                setClock(p2, clock);
+            }
+        }
         System.out.println("\n" + p1 + " vs. " + p2 + "\n");
         Player currentPlayer = p1;
         while(!p1.inCheckmate() && !p1.inStalemate() && !p2.inCheckmate()) {
@@ -38,6 +47,8 @@ public final class Chess {
             currentPlayer.doMove();
             currentPlayer = currentPlayer == p1 ? p2 : p1;
         }
+        stopPondering(p1);
+        stopPondering(p2);
         System.out.println(board);
         if (p1.inCheckmate()) {
             System.out.println(Board.ANSI_BLACK + "Black" + Board.ANSI_RESET + " wins!\n");
@@ -58,6 +69,75 @@ public final class Chess {
         }
     }
 
+    /**
+     * Makes the given player search on its opponent's time if it is a
+     * computer player and its opponent is a human, who takes long enough to
+     * move for pondering to pay off.
+     *
+     * @param player    the player to make ponder
+     * @param opponent  the opponent of the player
+     */
+    private static void ponderAgainstHuman(Player player, Player opponent) {
+        if (player instanceof MinimaxPlayer && opponent instanceof HumanPlayer) {
+            ((MinimaxPlayer) player).setPondering(true);
+        }
+    }
+
+    /**
+     * Stops the ponder search of the given player if it is a computer player.
+     *
+     * @param player  the player to stop pondering
+     */
+    private static void stopPondering(Player player) {
+        if (player instanceof MinimaxPlayer) {
+            ((MinimaxPlayer) player).stopPondering();
+        }
+    }
+
+    /**
+     * Gives the given player a clock with the given time and increment if it
+     * is a computer player.
+     *
+     * @param player  the player to give a clock
+     * @param clock   the time on the clock and the increment in milliseconds
+     */
+    private static void setClock(Player player, long[] clock) {
+        if (player instanceof MinimaxPlayer) {
+            ((MinimaxPlayer) player).setClock(clock[0], clock[1]);
+        }
+    }
+
+    /**
+     * Prompts the user to select a clock for the computer players, given as
+     * minutes and an increment in seconds, such as "5+3".
+     *
+     * @return the time on the clock and the increment in milliseconds, or
+     *         null to search to a fixed depth
+     */
+    private static long[] selectClock() {
+        Scanner in = new Scanner(System.in);
+        while (true) {
+            System.out.println("\nType in a clock for computer players as minutes+increment "
+                    + "seconds (e.g. 5+3),\nor press enter to search to a fixed depth.");
+            String clock = in.nextLine().trim();
+            if (clock.isEmpty()) {
+                return null;
+            }
+            String[] parts = clock.split("\\+", -1);
+            try {
+                long minutes = Long.parseLong(parts[0].trim());
+                long increment = parts.length > 1 ? Long.parseLong(parts[1].trim()) : 0;
+                if (parts.length <= 2 && minutes > 0 && increment >= 0) {
+                    return new long[] {minutes * 60000, increment * 1000};
+                }
+            } catch (NumberFormatException e) {
+                // Reported below like any other invalid clock
+            }
+            System.out.print(Board.ANSI_RED + "\nInvalid clock. Please try again\n"
+                               + Board.ANSI_RESET);
+        }
+    }
+
     /**
      * Prompts the user to select a player type out of human and computer players.
      *
@@ -1,5 +1,6 @@
 package chess;
 
+import chess.bitboard.*;
 import chess.pieces.*;
 import chess.heuristics.*;
 
@@ -33,6 +34,11 @@ public final class Move implements Comparable<Move> {
      */
     private final Square rookEnd;
 
+    /**
+     * The piece doing this move. For castle moves, the king.
+     */
+    private final Piece piece;
+
     /**
      * The piece that is captured at the end of this move. Null if no piece is
      * captured. Used to correctly undo moves from a board.
@@ -54,7 +60,7 @@ public final class Move implements Comparable<Move> {
     /**
      * The heuristic value of this move. 0 if not calculated.
      */
-    private double heuristicValue;
+    private int heuristicValue;
 
     /**
      * Whether the heuristic value of this move has been set or calculated.
@@ -62,9 +68,14 @@ public final class Move implements Comparable<Move> {
     private boolean heuristicValueSet;
 
     /**
-     * The notation of this move in algebraic notation.
+     * This move packed into an int as described in {@link Moves}.
+     */
+    private final int packedMove;
+
+    /**
+     * The notation of this move in algebraic notation. Null until first needed.
      */
-    private final String notation;
+    private String notation;
 
     /**
      * Constructs a new move with the specified start and end squares.
@@ -103,12 +114,27 @@ public final class Move implements Comparable<Move> {
         this.end = end;
         this.rookStart = rookStart;
         this.rookEnd = rookEnd;
+        piece = start.getPiece();
         capturedPiece = end.getPiece();
-        pieceAlreadyMoved = start.getPiece().getAlreadyMoved();
-        promotedPawn = isPromotion() ? start.getPiece() : null;
+        pieceAlreadyMoved = piece.getAlreadyMoved();
+        promotedPawn = isPromotion() ? piece : null;
         this.heuristicValue = 0;
         heuristicValueSet = false;
-        notation = notation();
+        packedMove = Moves.of(Bitboards.square(start.getRow(), start.getCol()),
+                              Bitboards.square(end.getRow(), end.getCol()), piece.getType(),
+                              capturedPiece == null ? Position.EMPTY : capturedPiece.getType(),
+                              promotedPawn == null ? Position.EMPTY : Position.QUEEN,
+                              rookStart != null);
+    }
+
+    /**
+     * Returns this move packed into an int as described in {@link Moves}.
+     * Promotions are packed as promotions to a queen.
+     *
+     * @return this move packed into an int
+     */
+    public int getPackedMove() {
+        return packedMove;
     }
 
     /**
@@ -116,7 +142,7 @@ public final class Move implements Comparable<Move> {
      *
      * @return the heuristic value of this move
      */
-    public double getHeuristicValue() {
+    public int getHeuristicValue() {
         return heuristicValue;
     }
 
@@ -125,7 +151,7 @@ public final class Move implements Comparable<Move> {
      *
      * @param heuristicValue  the value to set the heuristic value to
      */
-    public void setHeuristicValue(double heuristicValue) {
+    public void setHeuristicValue(int heuristicValue) {
         this.heuristicValue = heuristicValue;
         heuristicValueSet = true;
     }
@@ -140,7 +166,7 @@ public final class Move implements Comparable<Move> {
      * @param color      the color for which to calculate the value of this move
      */
     public void calculateHeuristicValue(Heuristic heuristic, Board board, Piece.Color color) {
-        setHeuristicValue(heuristic.calculateValue(board, color));
+        setHeuristicValue(heuristic.calculateValue(board.getPosition(), color));
     }
 
     /**
@@ -167,8 +193,8 @@ public final class Move implements Comparable<Move> {
      * @return true if a pawn is promoted as a result of this move, false otherwise
      */
     public boolean isPromotion() {
-        return promotedPawn != null || (start.getPiece() instanceof Pawn && (end.getRow() == 7 ||
-                                                                             end.getRow() == 0));
+        return promotedPawn != null || (piece instanceof Pawn && (end.getRow() == 7 ||
+                                                                  end.getRow() == 0));
     }
 
     /**
@@ -254,7 +280,7 @@ public final class Move implements Comparable<Move> {
      */
     public int compareTo(Move other) {
         return heuristicValueSet || other.heuristicValueSet
-                ? Double.compare(other.heuristicValue, heuristicValue) : 1;
+                ? Integer.compare(other.heuristicValue, heuristicValue) : 1;
     }
 
     /**
@@ -264,12 +290,11 @@ public final class Move implements Comparable<Move> {
      */
     private String notation() {
         // TODO: Add file name after piece if ambiguous, maybe use descriptive notation instead
-        String result = start.getPiece().getColor() == Piece.Color.WHITE ? Board.ANSI_BLUE
-                                                                         : Board.ANSI_BLACK;
+        String result = piece.getColor() == Piece.Color.WHITE ? Board.ANSI_BLUE : Board.ANSI_BLACK;
         if (isCastleMove()) {
             return result + (rookStart.getCol() == 0 ? "0-0-0" : "0-0") + Board.ANSI_RESET;
         }
-        return result + start.getPiece() + (isCaptureMove() ? "x" : "") + end.notation()
+        return result + piece + (isCaptureMove() ? "x" : "") + end.notation()
                 + Board.ANSI_RESET;
         // TODO: Fix check notation -- currently causes StackOverflowError
         // + (start.getBoard().inCheck(oppositeColor(start.getPiece().getColor())) ? "+" : "");
@@ -282,6 +307,9 @@ public final class Move implements Comparable<Move> {
      */
     @Override
     public String toString() {
+        if (notation == null) {
+            notation = notation();
+        }
         return notation;
     }
 
@@ -313,7 +341,7 @@ public final class Move implements Comparable<Move> {
         }
         Move move = (Move) o;
         return pieceAlreadyMoved == move.pieceAlreadyMoved && isCastleMove() == move.isCastleMove()
-                && Double.compare(move.heuristicValue, heuristicValue) == 0
+                && move.heuristicValue == heuristicValue
                 && heuristicValueSet == move.heuristicValueSet && start.equals(move.start)
                 && end.equals(move.end) && Objects.equals(rookStart, move.rookStart)
                 && Objects.equals(rookEnd, move.rookEnd)
@@ -327,7 +355,7 @@ public final class Move implements Comparable<Move> {
      */
     @Override
     public int hashCode() {
-        return Objects.hash(start, end, rookStart, rookEnd, capturedPiece, pieceAlreadyMoved,
-                            heuristicValue, heuristicValueSet);
+        // Equal moves have equal start and end squares, which the packed move holds
+        return Moves.squares(packedMove);
     }
 }
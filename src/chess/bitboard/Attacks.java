@@ -0,0 +1,342 @@
+package chess.bitboard;
+
+import static chess.bitboard.Bitboards.*;
+
+/**
+ * Precomputed attack tables for every piece type. Knight, king, and pawn
+ * attacks only depend on the square the piece is on, so they are stored in
+ * one table entry per square. Rook and bishop attacks also depend on the
+ * pieces blocking their rays, so they are looked up with magic bitboards: the
+ * relevant blockers are multiplied by a per-square magic number whose top
+ * bits form a perfect index into that square's section of the table. All
+ * tables are built once when this class is loaded.
+ */
+public final class Attacks {
+    /**
+     * Directions a rook can slide in, as {file change, rank change} pairs.
+     */
+    private static final int[][] ROOK_DIRECTIONS = {{1, 0}, {-1, 0}, {0, 1}, {0, -1}};
+
+    /**
+     * Directions a bishop can slide in, as {file change, rank change} pairs.
+     */
+    private static final int[][] BISHOP_DIRECTIONS = {{1, 1}, {1, -1}, {-1, 1}, {-1, -1}};
+
+    /**
+     * Jumps a knight can make, as {file change, rank change} pairs.
+     */
+    private static final int[][] KNIGHT_JUMPS = {{2, 1}, {2, -1}, {-2, 1}, {-2, -1},
+                                                 {1, 2}, {1, -2}, {-1, 2}, {-1, -2}};
+
+    /**
+     * Magic numbers for rook attack lookups, indexed by square. Found by a
+     * seeded random search for numbers that map every blocker subset of the
+     * square to a table index without destructive collisions.
+     */
+    private static final long[] ROOK_MAGICS = {
+            0x6080004000802010L, 0x0340002000411004L, 0x0480200010008008L,
+            0xC100041001000820L, 0x0200040200200910L, 0x8300020400080100L,
+            0x08800A0008800100L, 0x020000420480250CL, 0x4280800080204004L,
+            0x4000C02010004000L, 0x8002004111228200L, 0x2085002210010208L,
+            0x0090800400800800L, 0x0080800400800200L, 0xB001000402000100L,
+            0x0044800040803100L, 0x0001848001400020L, 0x0020044020401001L,
+            0x4000808010002000L, 0x0090008010080080L, 0x2082020020040810L,
+            0x8410808004000200L, 0x6030040001221088L, 0x0022020001084884L,
+            0x0000400180022098L, 0x0800810200220040L, 0x0810080020200400L,
+            0x0202400A00102202L, 0x8003010500080010L, 0x1500020080800400L,
+            0x0000020400106108L, 0x1004228200050244L, 0x0080004000C02000L,
+            0x0D00200040401001L, 0x0108110041002000L, 0x4808041000800880L,
+            0x4000041101000800L, 0x0404008004802200L, 0x04C0082104002210L,
+            0x0900210042000084L, 0x0040802040008001L, 0x0474A001D0014000L,
+            0x2810002000808011L, 0x000A022040120008L, 0x0C36000410220008L,
+            0x00E2000400028080L, 0x01C0010002008080L, 0x0200008404460001L,
+            0x0004800040002280L, 0x5002400080211300L, 0xA028402001001100L,
+            0x4010002010090100L, 0x0083000800100500L, 0x10A0040080020080L,
+            0x0060018208100400L, 0x0100008420510200L, 0x0040482014800101L,
+            0x4088801200204102L, 0x0081D06002090041L, 0xC000090020041001L,
+            0x0009000204904801L, 0x0002000104100802L, 0x0020102201080084L,
+            0x1640030020885402L
+    };
+
+    /**
+     * Magic numbers for bishop attack lookups, indexed by square.
+     */
+    private static final long[] BISHOP_MAGICS = {
+            0x4430028224002200L, 0x02212807A1004040L, 0x4011240421400020L,
+            0x0591041080409100L, 0x0102021000804000L, 0x800901A050800091L,
+            0x8002440220508082L, 0x0809048201200200L, 0x0108100222781A02L,
+            0x0410100A20A40188L, 0x8000109102002824L, 0x0007592042000630L,
+            0x0843011040010000L, 0x0506010121701090L, 0x0400144424444008L,
+            0xB002014148088848L, 0x0640440850810200L, 0xA021303802040849L,
+            0x4110003812881010L, 0x08B2800802004410L, 0x1002100401204008L,
+            0x0141002200410402L, 0x080900040C421204L, 0x01248806004C0200L,
+            0x0012400020285290L, 0x0008088002024800L, 0x0000208010030540L,
+            0x2242040002009200L, 0x0101001001004000L, 0x0000850000806001L,
+            0x2004290008480200L, 0x002E028070404812L, 0x002A508482912000L,
+            0x0081500200081801L, 0x0854041200040120L, 0x8100042008040100L,
+            0x0201010400660020L, 0x0006008200330804L, 0x00048092020C0101L,
+            0x0408050220010880L, 0x0209500844002080L, 0x400408840410B010L,
+            0x00000A008200500AL, 0x0840004010444200L, 0x0040400091010A08L,
+            0x04A1100200900202L, 0x0010048100500404L, 0x0402008902000104L,
+            0x0100480250901001L, 0x4606004402080403L, 0x50005A8408881001L,
+            0x1010A01084040500L, 0x0880021002020810L, 0x8204091090108010L,
+            0xC02AC84808004820L, 0x0004100242002004L, 0x4000822888044008L,
+            0x8112090C01210809L, 0x0000004042109000L, 0x0000002024840441L,
+            0x944600302042048AL, 0x00004008A0080080L, 0x0101200222480910L,
+            0x20202A046300A200L
+    };
+
+    private static final long[] KNIGHT = new long[NUM_SQUARES];
+    private static final long[] KING = new long[NUM_SQUARES];
+    private static final long[][] PAWN = new long[2][NUM_SQUARES];
+
+    private static final long[] ROOK_MASKS = new long[NUM_SQUARES];
+    private static final int[] ROOK_SHIFTS = new int[NUM_SQUARES];
+    private static final int[] ROOK_OFFSETS = new int[NUM_SQUARES];
+    private static final long[] ROOK_TABLE;
+
+    private static final long[] BISHOP_MASKS = new long[NUM_SQUARES];
+    private static final int[] BISHOP_SHIFTS = new int[NUM_SQUARES];
+    private static final int[] BISHOP_OFFSETS = new int[NUM_SQUARES];
+    private static final long[] BISHOP_TABLE;
+
+    private static final long[][] BETWEEN = new long[NUM_SQUARES][NUM_SQUARES];
+    private static final long[][] LINE = new long[NUM_SQUARES][NUM_SQUARES];
+
+    static {
+        int[][] kingSteps = new int[ROOK_DIRECTIONS.length + BISHOP_DIRECTIONS.length][];
+        System.arraycopy(ROOK_DIRECTIONS, 0, kingSteps, 0, ROOK_DIRECTIONS.length);
+        System.arraycopy(BISHOP_DIRECTIONS, 0, kingSteps, ROOK_DIRECTIONS.length,
+                         BISHOP_DIRECTIONS.length);
+        for (int square = 0; square < NUM_SQUARES; square++) {
+            KNIGHT[square] = stepAttacks(square, KNIGHT_JUMPS);
+            KING[square] = stepAttacks(square, kingSteps);
+            PAWN[Position.WHITE][square] = stepAttacks(square, new int[][] {{-1, 1}, {1, 1}});
+            PAWN[Position.BLACK][square] = stepAttacks(square, new int[][] {{-1, -1}, {1, -1}});
+        }
+        ROOK_TABLE = initSlider(ROOK_DIRECTIONS, ROOK_MAGICS, ROOK_MASKS, ROOK_SHIFTS,
+                                ROOK_OFFSETS);
+        BISHOP_TABLE = initSlider(BISHOP_DIRECTIONS, BISHOP_MAGICS, BISHOP_MASKS, BISHOP_SHIFTS,
+                                  BISHOP_OFFSETS);
+        for (int from = 0; from < NUM_SQUARES; from++) {
+            for (int to = 0; to < NUM_SQUARES; to++) {
+                if ((rook(from, 0) & bit(to)) != 0) {
+                    BETWEEN[from][to] = rook(from, bit(to)) & rook(to, bit(from));
+                    LINE[from][to] = (rook(from, 0) & rook(to, 0)) | bit(from) | bit(to);
+                } else if ((bishop(from, 0) & bit(to)) != 0) {
+                    BETWEEN[from][to] = bishop(from, bit(to)) & bishop(to, bit(from));
+                    LINE[from][to] = (bishop(from, 0) & bishop(to, 0)) | bit(from) | bit(to);
+                }
+            }
+        }
+    }
+
+    private Attacks() {}
+
+    /**
+     * Returns the squares attacked by a pawn of the given color on the given square.
+     *
+     * @param  color   the color of the pawn
+     * @param  square  the square the pawn is on
+     * @return         the squares attacked by the pawn
+     */
+    public static long pawn(int color, int square) {
+        return PAWN[color][square];
+    }
+
+    /**
+     * Returns the squares attacked by a knight on the given square.
+     *
+     * @param  square  the square the knight is on
+     * @return         the squares attacked by the knight
+     */
+    public static long knight(int square) {
+        return KNIGHT[square];
+    }
+
+    /**
+     * Returns the squares attacked by a king on the given square.
+     *
+     * @param  square  the square the king is on
+     * @return         the squares attacked by the king
+     */
+    public static long king(int square) {
+        return KING[square];
+    }
+
+    /**
+     * Returns the squares attacked by a rook on the given square with the
+     * given occupied squares.
+     *
+     * @param  square    the square the rook is on
+     * @param  occupied  the squares occupied by pieces of either color
+     * @return           the squares attacked by the rook
+     */
+    public static long rook(int square, long occupied) {
+        return ROOK_TABLE[ROOK_OFFSETS[square] + (int) (((occupied & ROOK_MASKS[square])
+                * ROOK_MAGICS[square]) >>> ROOK_SHIFTS[square])];
+    }
+
+    /**
+     * Returns the squares attacked by a bishop on the given square with the
+     * given occupied squares.
+     *
+     * @param  square    the square the bishop is on
+     * @param  occupied  the squares occupied by pieces of either color
+     * @return           the squares attacked by the bishop
+     */
+    public static long bishop(int square, long occupied) {
+        return BISHOP_TABLE[BISHOP_OFFSETS[square] + (int) (((occupied & BISHOP_MASKS[square])
+                * BISHOP_MAGICS[square]) >>> BISHOP_SHIFTS[square])];
+    }
+
+    /**
+     * Returns the squares attacked by a queen on the given square with the
+     * given occupied squares.
+     *
+     * @param  square    the square the queen is on
+     * @param  occupied  the squares occupied by pieces of either color
+     * @return           the squares attacked by the queen
+     */
+    public static long queen(int square, long occupied) {
+        return rook(square, occupied) | bishop(square, occupied);
+    }
+
+    /**
+     * Returns the squares strictly between the two given squares if they share
+     * a rank, file, or diagonal, or an empty bitboard otherwise.
+     *
+     * @param  from  the index of the first square
+     * @param  to    the index of the second square
+     * @return       the squares strictly between the two squares
+     */
+    public static long between(int from, int to) {
+        return BETWEEN[from][to];
+    }
+
+    /**
+     * Returns every square on the rank, file, or diagonal through both given
+     * squares, from one edge of the board to the other, or an empty bitboard
+     * if the squares do not share one.
+     *
+     * @param  from  the index of the first square
+     * @param  to    the index of the second square
+     * @return       the squares on the line through both squares
+     */
+    public static long line(int from, int to) {
+        return LINE[from][to];
+    }
+
+    /**
+     * Builds the magic lookup table for a sliding piece and fills in the
+     * blocker masks, shifts, and table offsets of every square.
+     *
+     * @param  directions  the directions the piece slides in
+     * @param  magics      the magic number of every square
+     * @param  masks       the array to fill with the blocker mask of every square
+     * @param  shifts      the array to fill with the index shift of every square
+     * @param  offsets     the array to fill with the table offset of every square
+     * @return             the attack table shared by every square
+     */
+    private static long[] initSlider(int[][] directions, long[] magics, long[] masks,
+                                     int[] shifts, int[] offsets) {
+        int size = 0;
+        for (int square = 0; square < NUM_SQUARES; square++) {
+            masks[square] = blockerMask(square, directions);
+            shifts[square] = 64 - count(masks[square]);
+            offsets[square] = size;
+            size += 1 << count(masks[square]);
+        }
+        long[] table = new long[size];
+        for (int square = 0; square < NUM_SQUARES; square++) {
+            // Enumerate every subset of the blocker mask (Carry-Rippler trick)
+            long blockers = 0;
+            do {
+                int index = (int) ((blockers * magics[square]) >>> shifts[square]);
+                table[offsets[square] + index] = slidingAttacks(square, blockers, directions);
+                blockers = (blockers - masks[square]) & masks[square];
+            } while (blockers != 0);
+        }
+        return table;
+    }
+
+    /**
+     * Returns the squares whose occupancy can change the attacks of a piece
+     * sliding from the given square in the given directions. The last square
+     * of each ray is excluded, as a piece there never blocks another square.
+     *
+     * @param  square      the square to slide from
+     * @param  directions  the {file change, rank change} pairs to slide along
+     * @return             the squares that can block the sliding piece
+     */
+    private static long blockerMask(int square, int[][] directions) {
+        long mask = 0;
+        for (int[] direction : directions) {
+            int f = (square & 7) + direction[0], r = (square >>> 3) + direction[1];
+            while (onBoard(f + direction[0], r + direction[1]) && onBoard(f, r)) {
+                mask |= bit(r * 8 + f);
+                f += direction[0];
+                r += direction[1];
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * Returns the squares reachable from the given square by making exactly
+     * one of the given steps.
+     *
+     * @param  square  the square to step from
+     * @param  steps   the {file change, rank change} pairs to step by
+     * @return         the squares reachable by making one of the steps
+     */
+    private static long stepAttacks(int square, int[][] steps) {
+        long attacks = 0;
+        for (int[] step : steps) {
+            int f = (square & 7) + step[0], r = (square >>> 3) + step[1];
+            if (onBoard(f, r)) {
+                attacks |= bit(r * 8 + f);
+            }
+        }
+        return attacks;
+    }
+
+    /**
+     * Returns the squares attacked by sliding from the given square in each
+     * of the given directions until the edge of the board or an occupied
+     * square is reached. The occupied square itself is included. Only used to
+     * build the lookup tables.
+     *
+     * @param  square      the square to slide from
+     * @param  occupied    the squares occupied by pieces of either color
+     * @param  directions  the {file change, rank change} pairs to slide along
+     * @return             the squares attacked by sliding in the directions
+     */
+    private static long slidingAttacks(int square, long occupied, int[][] directions) {
+        long attacks = 0;
+        for (int[] direction : directions) {
+            int f = (square & 7) + direction[0], r = (square >>> 3) + direction[1];
+            while (onBoard(f, r)) {
+                long b = bit(r * 8 + f);
+                attacks |= b;
+                if ((occupied & b) != 0) {
+                    break;
+                }
+                f += direction[0];
+                r += direction[1];
+            }
+        }
+        return attacks;
+    }
+
+    /**
+     * Returns true if the given file and rank are on the board, false otherwise.
+     *
+     * @param  file  the file, from 0 to 7 if on the board
+     * @param  rank  the rank, from 0 to 7 if on the board
+     * @return       true if the file and rank are on the board, false otherwise
+     */
+    private static boolean onBoard(int file, int rank) {
+        return file >= 0 && file < 8 && rank >= 0 && rank < 8;
+    }
+}
@@ -0,0 +1,92 @@
+package chess.bitboard;
+
+/**
+ * Constants and helper methods for working with bitboards. A bitboard is a
+ * 64-bit long in which each bit represents one square of the chessboard.
+ * Square indices start at 0 for a1 and increase along each rank, so b1 is 1,
+ * a2 is 8, and h8 is 63.
+ */
+public final class Bitboards {
+    /**
+     * The number of squares on the chessboard.
+     */
+    public static final int NUM_SQUARES = 64;
+
+    /**
+     * Bitboards of every square on the a and h files.
+     */
+    public static final long FILE_A = 0x0101010101010101L;
+    public static final long FILE_H = FILE_A << 7;
+
+    /**
+     * Bitboards of every square on the first, second, seventh, and eighth ranks.
+     */
+    public static final long RANK_1 = 0xFFL;
+    public static final long RANK_2 = RANK_1 << 8;
+    public static final long RANK_7 = RANK_1 << 48;
+    public static final long RANK_8 = RANK_1 << 56;
+
+    private Bitboards() {}
+
+    /**
+     * Returns the index of the square at the given row and column of a
+     * {@link chess.Board}, where row 0 is the eighth rank.
+     *
+     * @param  row  the row of the square
+     * @param  col  the column of the square
+     * @return      the index of the square at the given row and column
+     */
+    public static int square(int row, int col) {
+        return (7 - row) * 8 + col;
+    }
+
+    /**
+     * Returns the board row of the square with the given index.
+     *
+     * @param  square  the index of the square
+     * @return         the board row of the square with the given index
+     */
+    public static int row(int square) {
+        return 7 - (square >>> 3);
+    }
+
+    /**
+     * Returns the board column of the square with the given index.
+     *
+     * @param  square  the index of the square
+     * @return         the board column of the square with the given index
+     */
+    public static int col(int square) {
+        return square & 7;
+    }
+
+    /**
+     * Returns a bitboard with only the given square set.
+     *
+     * @param  square  the index of the square
+     * @return         a bitboard with only the given square set
+     */
+    public static long bit(int square) {
+        return 1L << square;
+    }
+
+    /**
+     * Returns the index of the lowest set square of the given bitboard.
+     *
+     * @param  bitboard  a non-empty bitboard
+     * @return           the index of the lowest set square of the given bitboard
+     */
+    public static int first(long bitboard) {
+        return Long.numberOfTrailingZeros(bitboard);
+    }
+
+    /**
+     * Returns the number of set squares in the given bitboard.
+     *
+     * @param  bitboard  the bitboard to count
+     * @return           the number of set squares in the given bitboard
+     */
+    public static int count(long bitboard) {
+        return Long.bitCount(bitboard);
+    }
+}
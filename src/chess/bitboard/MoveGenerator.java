@@ -0,0 +1,267 @@
+package chess.bitboard;
+
+import static chess.bitboard.Bitboards.*;
+import static chess.bitboard.Position.*;
+
+/**
+ * Generates moves for a position using bitboard arithmetic. Moves are written
+ * into a caller-supplied int array, packed as described in {@link Moves}.
+ * Pawn moves to the last rank are generated as promotions to a queen.
+ *
+ * Legal moves are generated directly rather than by making each candidate
+ * move and looking for check. The pieces giving check, the squares a piece
+ * may move to in order to resolve a check, and the pinned pieces are computed
+ * once per position, and every candidate move is then filtered against them
+ * with a few bitwise operations. King moves are checked one target square at
+ * a time with an attack query on that square.
+ */
+public final class MoveGenerator {
+    /**
+     * The maximum number of moves that can be generated for a single position.
+     */
+    public static final int MAX_MOVES = 256;
+
+    private MoveGenerator() {}
+
+    /**
+     * Writes every move the player of the given color can make into the given
+     * array. May write illegal moves if onlyLegalMoves is false.
+     *
+     * @param  position        the position to generate moves for
+     * @param  color           the color for which to generate moves
+     * @param  onlyLegalMoves  whether to only generate legal moves or not
+     * @param  moves           the array to write the moves into
+     * @return                 the number of moves written
+     */
+    public static int generate(Position position, int color, boolean onlyLegalMoves, int[] moves) {
+        return generate(position, color, position.pieces(color), onlyLegalMoves, false, moves, 0);
+    }
+
+    /**
+     * Writes every legal capture and promotion the player of the given color
+     * can make into the given array. These are the moves that change the
+     * material on the board, as searched by a quiescence search.
+     *
+     * @param  position  the position to generate moves for
+     * @param  color     the color for which to generate moves
+     * @param  moves     the array to write the moves into
+     * @return           the number of moves written
+     */
+    public static int generateCaptures(Position position, int color, int[] moves) {
+        return generate(position, color, position.pieces(color), true, true, moves, 0);
+    }
+
+    /**
+     * Writes every move the piece on the given square can make into the given
+     * array, starting at the given index. May write illegal moves if
+     * onlyLegalMoves is false.
+     *
+     * @param  position        the position to generate moves for
+     * @param  from            the index of the square of the piece to move
+     * @param  onlyLegalMoves  whether to only generate legal moves or not
+     * @param  moves           the array to write the moves into
+     * @param  count           the index to start writing moves at
+     * @return                 the index after the last move written
+     */
+    public static int generate(Position position, int from, boolean onlyLegalMoves, int[] moves,
+                               int count) {
+        return generate(position, colorOf(position.pieceAt(from)), bit(from), onlyLegalMoves,
+                        false, moves, count);
+    }
+
+    /**
+     * Returns the number of legal moves the player of the given color can make.
+     *
+     * @param  position  the position to count moves for
+     * @param  color     the color for which to count moves
+     * @return           the number of legal moves the player can make
+     */
+    public static int countLegalMoves(Position position, int color) {
+        return generate(position, color, position.pieces(color), true, false, null, 0);
+    }
+
+    /**
+     * Writes every move the pieces of the given color on the given squares can
+     * make into the given array, starting at the given index. If the array is
+     * null, the moves are only counted.
+     *
+     * @param  position        the position to generate moves for
+     * @param  color           the color for which to generate moves
+     * @param  fromSquares     the squares of the pieces to generate moves for
+     * @param  onlyLegalMoves  whether to only generate legal moves or not
+     * @param  onlyCaptures    whether to only generate captures and promotions
+     * @param  moves           the array to write the moves into, or null
+     * @param  count           the index to start writing moves at
+     * @return                 the index after the last move written
+     */
+    private static int generate(Position position, int color, long fromSquares,
+                                boolean onlyLegalMoves, boolean onlyCaptures, int[] moves,
+                                int count) {
+        int them = opposite(color);
+        int king = position.kingSquare(color);
+        long own = position.pieces(color);
+        long occupied = position.occupied();
+        long enemies = position.pieces(them);
+        // Pawns also promote by moving to an empty square on the last rank
+        long targetMask = onlyCaptures ? enemies : ~0L;
+        long pawnTargetMask = onlyCaptures ? enemies | RANK_1 | RANK_8 : ~0L;
+        // Without the legality filter, every square is a valid target and nothing is pinned
+        long checkers = 0, pinned = 0, evasions = ~0L;
+        if (onlyLegalMoves) {
+            checkers = position.attackersTo(king, them, occupied);
+            pinned = pinned(position, color, king);
+            if (checkers != 0) {
+                // Other pieces must capture the checker or block its path
+                evasions = checkers | Attacks.between(king, first(checkers));
+            }
+        }
+        if ((fromSquares & bit(king)) != 0) {
+            long targets = Attacks.king(king) & ~own & targetMask;
+            if (onlyLegalMoves) {
+                // The king does not block attacks on the squares behind it
+                for (long b = targets; b != 0; b &= b - 1) {
+                    if (position.isSquareAttacked(first(b), them, occupied ^ bit(king))) {
+                        targets ^= b & -b;
+                    }
+                }
+            }
+            count = add(position, king, targets, moves, count);
+            if (checkers == 0 && !onlyCaptures) {
+                count = addCastleMove(position, color, king, 1, onlyLegalMoves, moves, count);
+                count = addCastleMove(position, color, king, -1, onlyLegalMoves, moves, count);
+            }
+        }
+        if (Long.bitCount(checkers) > 1) {
+            // Only the king can escape a double check
+            return count;
+        }
+        for (long b = fromSquares & own & ~bit(king); b != 0; b &= b - 1) {
+            int from = first(b);
+            long targets;
+            if (typeOf(position.pieceAt(from)) == PAWN) {
+                targets = pawnPushes(position, color, from) | (Attacks.pawn(color, from) & enemies);
+                targets &= pawnTargetMask;
+            } else {
+                targets = position.attacks(from) & ~own & targetMask;
+            }
+            targets &= evasions;
+            if ((pinned & bit(from)) != 0) {
+                // A pinned piece can only move along the line through its king
+                targets &= Attacks.line(king, from);
+            }
+            count = add(position, from, targets, moves, count);
+        }
+        return count;
+    }
+
+    /**
+     * Writes a move from the given square to each of the given target squares
+     * into the given array, or only counts them if the array is null.
+     *
+     * @param  position  the position the moves are made in
+     * @param  from      the index of the square the moves start on
+     * @param  targets   the squares the moves end on
+     * @param  moves     the array to write the moves into, or null
+     * @param  count     the index to start writing moves at
+     * @return           the index after the last move written
+     */
+    private static int add(Position position, int from, long targets, int[] moves, int count) {
+        if (moves == null) {
+            return count + Long.bitCount(targets);
+        }
+        int type = typeOf(position.pieceAt(from));
+        long promotions = type == PAWN ? RANK_1 | RANK_8 : 0;
+        for (; targets != 0; targets &= targets - 1) {
+            int to = first(targets);
+            int captured = position.pieceAt(to);
+            moves[count++] = Moves.of(from, to, type, captured == EMPTY ? EMPTY : typeOf(captured),
+                                      (promotions & bit(to)) != 0 ? QUEEN : EMPTY, false);
+        }
+        return count;
+    }
+
+    /**
+     * Returns the pieces of the given color that are pinned to their king. A
+     * piece is pinned if it is the only piece between its king and an enemy
+     * rook, bishop, or queen that could otherwise attack the king.
+     *
+     * @param  position  the position to find pinned pieces in
+     * @param  color     the color of the pinned pieces
+     * @param  king      the index of the square the king of that color is on
+     * @return           the pieces of the given color pinned to their king
+     */
+    private static long pinned(Position position, int color, int king) {
+        int them = opposite(color);
+        long enemies = position.pieces(them);
+        long queens = position.pieces(them, QUEEN);
+        // Enemy sliders that would attack the king if only enemy pieces blocked them
+        long snipers = (Attacks.rook(king, enemies) & (position.pieces(them, ROOK) | queens))
+                | (Attacks.bishop(king, enemies) & (position.pieces(them, BISHOP) | queens));
+        long pinned = 0;
+        for (; snipers != 0; snipers &= snipers - 1) {
+            long blockers = Attacks.between(king, first(snipers)) & position.occupied();
+            if (Long.bitCount(blockers) == 1) {
+                pinned |= blockers & position.pieces(color);
+            }
+        }
+        return pinned;
+    }
+
+    /**
+     * Returns the squares a pawn of the given color on the given square can
+     * move to without capturing.
+     *
+     * @param  position  the position the pawn is in
+     * @param  color     the color of the pawn
+     * @param  from      the index of the square the pawn is on
+     * @return           the squares the pawn can move to without capturing
+     */
+    private static long pawnPushes(Position position, int color, int from) {
+        long empty = ~position.occupied();
+        if (color == WHITE) {
+            long single = (bit(from) << 8) & empty;
+            return single | ((single & (RANK_2 << 8)) << 8 & empty);
+        }
+        long single = (bit(from) >>> 8) & empty;
+        return single | ((single & (RANK_7 >>> 8)) >>> 8 & empty);
+    }
+
+    /**
+     * Adds the castle move of the king of the given color on the given square
+     * in the given direction if castling in that direction is allowed. Castling
+     * requires the king and rook to not have moved, every square between them
+     * to be empty, and the king to not start in, move through, or end in
+     * check. The caller checks that the king does not start in check. If
+     * onlyLegalMoves is false, attacked squares are not considered.
+     *
+     * @param  position        the position to generate the move for
+     * @param  color           the color of the king
+     * @param  from            the index of the square the king is on
+     * @param  direction       1 for kingside castling, -1 for queenside castling
+     * @param  onlyLegalMoves  whether to only generate legal moves or not
+     * @param  moves           the array to write the move into, or null
+     * @param  count           the index to write the move at
+     * @return                 the index after the last move written
+     */
+    private static int addCastleMove(Position position, int color, int from, int direction,
+                                     boolean onlyLegalMoves, int[] moves, int count) {
+        int right = direction > 0 ? WHITE_KINGSIDE : WHITE_QUEENSIDE;
+        if ((position.castlingRights() & (color == WHITE ? right : right << 2)) == 0) {
+            return count;
+        }
+        int rook = direction > 0 ? from + 3 : from - 4;
+        int to = from + 2 * direction;
+        if ((Attacks.between(from, rook) & position.occupied()) != 0) {
+            return count;
+        }
+        int them = opposite(color);
+        if (onlyLegalMoves && (position.isSquareAttacked(from + direction, them)
+                               || position.isSquareAttacked(to, them))) {
+            return count;
+        }
+        if (moves != null) {
+            moves[count] = Moves.of(from, to, KING, EMPTY, EMPTY, true);
+        }
+        return count + 1;
+    }
+}
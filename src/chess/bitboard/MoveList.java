@@ -0,0 +1,152 @@
+package chess.bitboard;
+
+/**
+ * Preallocated buffers of packed moves for a search, one per ply. Each buffer
+ * has a parallel array of scores used to order its moves, so moves can be
+ * generated, scored, and sorted without allocating anything during a search.
+ * The buffer of a ply is only valid until a move list is filled for the same
+ * ply again, so each ply of a search uses its own buffer.
+ */
+public final class MoveList {
+    /**
+     * The maximum number of plies a move list holds buffers for.
+     */
+    public static final int MAX_PLY = 128;
+
+    /**
+     * The packed moves of each ply.
+     */
+    private final int[][] moves;
+
+    /**
+     * The score of each move of each ply, parallel to moves.
+     */
+    private final int[][] scores;
+
+    /**
+     * The number of moves in the buffer of each ply.
+     */
+    private final int[] sizes;
+
+    /**
+     * Constructs a new move list with an empty buffer for every ply.
+     */
+    public MoveList() {
+        moves = new int[MAX_PLY][MoveGenerator.MAX_MOVES];
+        scores = new int[MAX_PLY][MoveGenerator.MAX_MOVES];
+        sizes = new int[MAX_PLY];
+    }
+
+    /**
+     * Fills the buffer of the given ply with the legal moves the player of the
+     * given color can make, and clears their scores.
+     *
+     * @param  position  the position to generate moves for
+     * @param  color     the color for which to generate moves
+     * @param  ply       the ply of the buffer to fill
+     * @return           the number of moves generated
+     */
+    public int generate(Position position, int color, int ply) {
+        int size = MoveGenerator.generate(position, color, true, moves[ply]);
+        sizes[ply] = size;
+        clearScores(ply);
+        return size;
+    }
+
+    /**
+     * Fills the buffer of the given ply with the legal captures and
+     * promotions the player of the given color can make, and clears their
+     * scores.
+     *
+     * @param  position  the position to generate moves for
+     * @param  color     the color for which to generate moves
+     * @param  ply       the ply of the buffer to fill
+     * @return           the number of moves generated
+     */
+    public int generateCaptures(Position position, int color, int ply) {
+        int size = MoveGenerator.generateCaptures(position, color, moves[ply]);
+        sizes[ply] = size;
+        clearScores(ply);
+        return size;
+    }
+
+    /**
+     * Returns the number of moves in the buffer of the given ply.
+     *
+     * @param  ply  the ply of the buffer
+     * @return      the number of moves in the buffer
+     */
+    public int size(int ply) {
+        return sizes[ply];
+    }
+
+    /**
+     * Returns the move at the given index of the buffer of the given ply.
+     *
+     * @param  ply    the ply of the buffer
+     * @param  index  the index of the move
+     * @return        the packed move at the given index
+     */
+    public int move(int ply, int index) {
+        return moves[ply][index];
+    }
+
+    /**
+     * Returns the score of the move at the given index of the buffer of the
+     * given ply.
+     *
+     * @param  ply    the ply of the buffer
+     * @param  index  the index of the move
+     * @return        the score of the move at the given index
+     */
+    public int score(int ply, int index) {
+        return scores[ply][index];
+    }
+
+    /**
+     * Sets the score of the move at the given index of the buffer of the given
+     * ply.
+     *
+     * @param ply    the ply of the buffer
+     * @param index  the index of the move
+     * @param score  the score of the move
+     */
+    public void setScore(int ply, int index, int score) {
+        scores[ply][index] = score;
+    }
+
+    /**
+     * Sorts the moves in the buffer of the given ply in place by score in
+     * descending order. Moves with equal scores keep their relative order.
+     *
+     * @param ply  the ply of the buffer to sort
+     */
+    public void sort(int ply) {
+        int[] plyMoves = moves[ply];
+        int[] plyScores = scores[ply];
+        for (int i = 1; i < sizes[ply]; i++) {
+            int move = plyMoves[i];
+            int score = plyScores[i];
+            int j = i - 1;
+            for (; j >= 0 && plyScores[j] < score; j--) {
+                plyMoves[j + 1] = plyMoves[j];
+                plyScores[j + 1] = plyScores[j];
+            }
+            plyMoves[j + 1] = move;
+            plyScores[j + 1] = score;
+        }
+    }
+
+    /**
+     * Sets the score of every move in the buffer of the given ply to the
+     * lowest possible score.
+     *
+     * @param ply  the ply of the buffer
+     */
+    private void clearScores(int ply) {
+        int[] plyScores = scores[ply];
+        for (int i = 0; i < sizes[ply]; i++) {
+            plyScores[i] = Integer.MIN_VALUE;
+        }
+    }
+}
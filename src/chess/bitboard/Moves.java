@@ -0,0 +1,162 @@
+package chess.bitboard;
+
+/**
+ * Helper methods for moves packed into a single int. The bits of a packed move
+ * hold, from lowest to highest:
+ *
+ * <pre>
+ *  0-5   the index of the square the move starts on
+ *  6-11  the index of the square the move ends on
+ * 12-14  the type of the moving piece
+ * 15-17  the type of the captured piece, if the move is a capture
+ * 18-20  the type the pawn is promoted to, if the move is a promotion
+ * 21     set if the move is a capture
+ * 22     set if the move is a promotion
+ * 23     set if the move is a castle move
+ * </pre>
+ *
+ * Castle moves are packed as the two-square move of the king. No legal move
+ * packs to 0, so 0 can be used to mean no move.
+ */
+public final class Moves {
+    /**
+     * The packed value that represents no move.
+     */
+    public static final int NONE = 0;
+
+    /**
+     * Flag bits marking captures, promotions, and castle moves.
+     */
+    public static final int CAPTURE = 1 << 21;
+    public static final int PROMOTION = 1 << 22;
+    public static final int CASTLE = 1 << 23;
+
+    private Moves() {}
+
+    /**
+     * Returns the packed move with the given fields.
+     *
+     * @param  from       the index of the square the move starts on
+     * @param  to         the index of the square the move ends on
+     * @param  piece      the type of the moving piece
+     * @param  captured   the type of the captured piece, or Position.EMPTY
+     * @param  promotion  the type the pawn is promoted to, or Position.EMPTY
+     * @param  castle     whether the move is a castle move
+     * @return            the packed move
+     */
+    public static int of(int from, int to, int piece, int captured, int promotion,
+                         boolean castle) {
+        int move = from | to << 6 | piece << 12;
+        if (captured != Position.EMPTY) {
+            move |= CAPTURE | captured << 15;
+        }
+        if (promotion != Position.EMPTY) {
+            move |= PROMOTION | promotion << 18;
+        }
+        return castle ? move | CASTLE : move;
+    }
+
+    /**
+     * Returns the index of the square the given move starts on.
+     *
+     * @param  move  the packed move
+     * @return       the index of the square the move starts on
+     */
+    public static int from(int move) {
+        return move & 63;
+    }
+
+    /**
+     * Returns the index of the square the given move ends on.
+     *
+     * @param  move  the packed move
+     * @return       the index of the square the move ends on
+     */
+    public static int to(int move) {
+        return move >>> 6 & 63;
+    }
+
+    /**
+     * Returns the type of the piece making the given move.
+     *
+     * @param  move  the packed move
+     * @return       the type of the moving piece
+     */
+    public static int piece(int move) {
+        return move >>> 12 & 7;
+    }
+
+    /**
+     * Returns the type of the piece captured by the given move. Only
+     * meaningful if the move is a capture.
+     *
+     * @param  move  the packed move
+     * @return       the type of the captured piece
+     */
+    public static int captured(int move) {
+        return move >>> 15 & 7;
+    }
+
+    /**
+     * Returns the type the pawn is promoted to by the given move. Only
+     * meaningful if the move is a promotion.
+     *
+     * @param  move  the packed move
+     * @return       the type the pawn is promoted to
+     */
+    public static int promotion(int move) {
+        return move >>> 18 & 7;
+    }
+
+    /**
+     * Returns true if the given move is a capture, false otherwise.
+     *
+     * @param  move  the packed move
+     * @return       true if the move is a capture, false otherwise
+     */
+    public static boolean isCapture(int move) {
+        return (move & CAPTURE) != 0;
+    }
+
+    /**
+     * Returns true if the given move is a promotion, false otherwise.
+     *
+     * @param  move  the packed move
+     * @return       true if the move is a promotion, false otherwise
+     */
+    public static boolean isPromotion(int move) {
+        return (move & PROMOTION) != 0;
+    }
+
+    /**
+     * Returns true if the given move is a castle move, false otherwise.
+     *
+     * @param  move  the packed move
+     * @return       true if the move is a castle move, false otherwise
+     */
+    public static boolean isCastle(int move) {
+        return (move & CASTLE) != 0;
+    }
+
+    /**
+     * Returns the given promotion move changed to promote to the given type.
+     *
+     * @param  move  the packed promotion move
+     * @param  type  the type to promote the pawn to
+     * @return       the packed move promoting to the given type
+     */
+    public static int withPromotion(int move, int type) {
+        return (move & ~(7 << 18)) | type << 18;
+    }
+
+    /**
+     * Returns the start and end squares of the given move packed into 12
+     * bits, which is enough to tell apart every move in a single position.
+     *
+     * @param  move  the packed move
+     * @return       the start and end squares of the move
+     */
+    public static int squares(int move) {
+        return move & 0xFFF;
+    }
+}
@@ -0,0 +1,627 @@
+package chess.bitboard;
+
+import java.util.*;
+
+import static chess.bitboard.Bitboards.*;
+
+/**
+ * The placement of pieces on a chessboard, stored as one bitboard for every
+ * combination of piece color and type plus an occupancy bitboard for each
+ * color. A square-indexed array of piece codes is kept alongside the
+ * bitboards so that the piece on a given square can be found immediately.
+ *
+ * The bitboard of each color and type doubles as the list of squares those
+ * pieces are on: looping over its set bits visits exactly those pieces
+ * without allocating anything. Piece counts are updated as pieces are
+ * placed and removed, so they never need to be recounted.
+ */
+public final class Position {
+    /**
+     * The indices of the two colors.
+     */
+    public static final int WHITE = 0;
+    public static final int BLACK = 1;
+
+    /**
+     * The indices of the six piece types.
+     */
+    public static final int PAWN = 0;
+    public static final int KNIGHT = 1;
+    public static final int BISHOP = 2;
+    public static final int ROOK = 3;
+    public static final int QUEEN = 4;
+    public static final int KING = 5;
+
+    /**
+     * The piece code of an empty square.
+     */
+    public static final int EMPTY = -1;
+
+    /**
+     * Bit flags for each of the four castling rights.
+     */
+    public static final int WHITE_KINGSIDE = 1;
+    public static final int WHITE_QUEENSIDE = 2;
+    public static final int BLACK_KINGSIDE = 4;
+    public static final int BLACK_QUEENSIDE = 8;
+
+    /**
+     * The castling rights kept after a move to or from each square. Moving
+     * the king or a rook, or capturing a rook, loses the rights that need it.
+     */
+    private static final int[] CASTLING_MASKS = new int[NUM_SQUARES];
+
+    static {
+        Arrays.fill(CASTLING_MASKS, WHITE_KINGSIDE | WHITE_QUEENSIDE
+                                    | BLACK_KINGSIDE | BLACK_QUEENSIDE);
+        CASTLING_MASKS[4] &= ~(WHITE_KINGSIDE | WHITE_QUEENSIDE);
+        CASTLING_MASKS[7] &= ~WHITE_KINGSIDE;
+        CASTLING_MASKS[0] &= ~WHITE_QUEENSIDE;
+        CASTLING_MASKS[60] &= ~(BLACK_KINGSIDE | BLACK_QUEENSIDE);
+        CASTLING_MASKS[63] &= ~BLACK_KINGSIDE;
+        CASTLING_MASKS[56] &= ~BLACK_QUEENSIDE;
+    }
+
+    /**
+     * The squares occupied by each piece, indexed by piece code.
+     */
+    private final long[] pieces;
+
+    /**
+     * The squares occupied by each color, indexed by color.
+     */
+    private final long[] colors;
+
+    /**
+     * The squares occupied by pieces of either color.
+     */
+    private long occupied;
+
+    /**
+     * The piece code of the piece on each square, or EMPTY.
+     */
+    private final int[] squares;
+
+    /**
+     * The number of pieces of each piece code. The unused code 7 of each
+     * color holds the number of pieces of that color.
+     */
+    private final int[] counts;
+
+    /**
+     * The castling rights that have not been lost yet, as bit flags.
+     */
+    private int castlingRights;
+
+    /**
+     * The number of moves made since the last capture or pawn move.
+     */
+    private int halfmoveClock;
+
+    /**
+     * The Zobrist hash of this position, updated as pieces, castling rights,
+     * and the side to move change.
+     */
+    private long hash;
+
+    /**
+     * Every move made in this position that has not been undone, oldest first.
+     */
+    private int[] moveHistory;
+
+    /**
+     * The state before each move in the move history that the move cannot be
+     * undone without, packed into an int as described in undoRecord.
+     */
+    private int[] undoHistory;
+
+    /**
+     * The hash of this position before each move in the move history.
+     */
+    private long[] hashHistory;
+
+    /**
+     * The number of moves in the move history.
+     */
+    private int historySize;
+
+    /**
+     * Constructs a new position with no pieces on the board.
+     */
+    public Position() {
+        pieces = new long[16];
+        colors = new long[2];
+        squares = new int[NUM_SQUARES];
+        Arrays.fill(squares, EMPTY);
+        counts = new int[16];
+        moveHistory = new int[256];
+        undoHistory = new int[256];
+        hashHistory = new long[256];
+        hash = Zobrist.castling(0);
+    }
+
+    /**
+     * Constructs a new position that is a copy of the given position,
+     * including its move history. Moves made in either position afterwards
+     * do not affect the other.
+     *
+     * @param other  the position to copy
+     */
+    public Position(Position other) {
+        pieces = other.pieces.clone();
+        colors = other.colors.clone();
+        occupied = other.occupied;
+        squares = other.squares.clone();
+        counts = other.counts.clone();
+        castlingRights = other.castlingRights;
+        halfmoveClock = other.halfmoveClock;
+        hash = other.hash;
+        moveHistory = other.moveHistory.clone();
+        undoHistory = other.undoHistory.clone();
+        hashHistory = other.hashHistory.clone();
+        historySize = other.historySize;
+    }
+
+    /**
+     * Makes this position a copy of the given position, including its move
+     * history, reusing the arrays of this position where they are large
+     * enough. Moves made in either position afterwards do not affect the
+     * other.
+     *
+     * @param other  the position to copy
+     */
+    public void set(Position other) {
+        System.arraycopy(other.pieces, 0, pieces, 0, pieces.length);
+        System.arraycopy(other.colors, 0, colors, 0, colors.length);
+        occupied = other.occupied;
+        System.arraycopy(other.squares, 0, squares, 0, squares.length);
+        System.arraycopy(other.counts, 0, counts, 0, counts.length);
+        castlingRights = other.castlingRights;
+        halfmoveClock = other.halfmoveClock;
+        hash = other.hash;
+        if (moveHistory.length < other.historySize) {
+            moveHistory = new int[other.moveHistory.length];
+            undoHistory = new int[other.undoHistory.length];
+            hashHistory = new long[other.hashHistory.length];
+        }
+        historySize = other.historySize;
+        System.arraycopy(other.moveHistory, 0, moveHistory, 0, historySize);
+        System.arraycopy(other.undoHistory, 0, undoHistory, 0, historySize);
+        System.arraycopy(other.hashHistory, 0, hashHistory, 0, historySize);
+    }
+
+    /**
+     * Returns the piece code for the given color and piece type.
+     *
+     * @param  color  the color of the piece
+     * @param  type   the type of the piece
+     * @return        the piece code for the given color and piece type
+     */
+    public static int piece(int color, int type) {
+        return color << 3 | type;
+    }
+
+    /**
+     * Returns the color of the piece with the given piece code.
+     *
+     * @param  piece  the piece code
+     * @return        the color of the piece
+     */
+    public static int colorOf(int piece) {
+        return piece >>> 3;
+    }
+
+    /**
+     * Returns the type of the piece with the given piece code.
+     *
+     * @param  piece  the piece code
+     * @return        the type of the piece
+     */
+    public static int typeOf(int piece) {
+        return piece & 7;
+    }
+
+    /**
+     * Returns the color opposite of the given color.
+     *
+     * @param  color  the color to find the opposite of
+     * @return        the color opposite of the given color
+     */
+    public static int opposite(int color) {
+        return color ^ 1;
+    }
+
+    /**
+     * Returns the squares occupied by pieces of the given color and type.
+     *
+     * @param  color  the color of the pieces
+     * @param  type   the type of the pieces
+     * @return        the squares occupied by pieces of the given color and type
+     */
+    public long pieces(int color, int type) {
+        return pieces[color << 3 | type];
+    }
+
+    /**
+     * Returns the squares occupied by pieces of the given color.
+     *
+     * @param  color  the color of the pieces
+     * @return        the squares occupied by pieces of the given color
+     */
+    public long pieces(int color) {
+        return colors[color];
+    }
+
+    /**
+     * Returns the number of pieces of the given color and type.
+     *
+     * @param  color  the color of the pieces
+     * @param  type   the type of the pieces
+     * @return        the number of pieces of the given color and type
+     */
+    public int count(int color, int type) {
+        return counts[color << 3 | type];
+    }
+
+    /**
+     * Returns the number of pieces of the given color.
+     *
+     * @param  color  the color of the pieces
+     * @return        the number of pieces of the given color
+     */
+    public int count(int color) {
+        return counts[color << 3 | 7];
+    }
+
+    /**
+     * Returns the squares occupied by pieces of either color.
+     *
+     * @return the squares occupied by pieces of either color
+     */
+    public long occupied() {
+        return occupied;
+    }
+
+    /**
+     * Returns the piece code of the piece on the given square, or EMPTY.
+     *
+     * @param  square  the index of the square
+     * @return         the piece code of the piece on the given square, or EMPTY
+     */
+    public int pieceAt(int square) {
+        return squares[square];
+    }
+
+    /**
+     * Returns the square the king of the given color is on.
+     *
+     * @param  color  the color of the king
+     * @return        the square the king of the given color is on
+     */
+    public int kingSquare(int color) {
+        return first(pieces[color << 3 | KING]);
+    }
+
+    /**
+     * Returns the castling rights that have not been lost yet, as bit flags.
+     *
+     * @return the castling rights that have not been lost yet
+     */
+    public int castlingRights() {
+        return castlingRights;
+    }
+
+    /**
+     * Sets the castling rights to the given bit flags.
+     *
+     * @param castlingRights  the new castling rights
+     */
+    public void setCastlingRights(int castlingRights) {
+        hash ^= Zobrist.castling(this.castlingRights) ^ Zobrist.castling(castlingRights);
+        this.castlingRights = castlingRights;
+    }
+
+    /**
+     * Returns the Zobrist hash of this position. Positions with the same
+     * pieces on the same squares, the same castling rights, and the same
+     * side to move have the same hash, and different positions almost
+     * always have different hashes. White is taken to move when no moves or
+     * an even number of moves have been made.
+     *
+     * @return the Zobrist hash of this position
+     */
+    public long hash() {
+        return hash;
+    }
+
+    /**
+     * Returns the number of moves made since the last capture or pawn move.
+     *
+     * @return the number of moves made since the last capture or pawn move
+     */
+    public int halfmoveClock() {
+        return halfmoveClock;
+    }
+
+    /**
+     * Makes the given packed move. The state the move cannot be undone
+     * without is pushed onto the undo history, so no objects are created.
+     *
+     * @param move  the packed move to make
+     */
+    public void makeMove(int move) {
+        growHistory();
+        hashHistory[historySize] = hash;
+        int from = Moves.from(move), to = Moves.to(move);
+        int piece = squares[from];
+        int captured = removePiece(to);
+        moveHistory[historySize] = move;
+        undoHistory[historySize++] = undoRecord(captured, castlingRights, halfmoveClock);
+        movePiece(from, to);
+        if (Moves.isPromotion(move)) {
+            removePiece(to);
+            putPiece(to, piece(colorOf(piece), Moves.promotion(move)));
+        } else if (Moves.isCastle(move)) {
+            if (to > from) {
+                movePiece(to + 1, to - 1);
+            } else {
+                movePiece(to - 2, to + 1);
+            }
+        }
+        setCastlingRights(castlingRights & CASTLING_MASKS[from] & CASTLING_MASKS[to]);
+        hash ^= Zobrist.SIDE;
+        halfmoveClock = captured != EMPTY || typeOf(piece) == PAWN ? 0 : halfmoveClock + 1;
+    }
+
+    /**
+     * Undoes the last move made in this position by restoring the state saved
+     * when it was made.
+     */
+    public void unmakeMove() {
+        int move = moveHistory[--historySize];
+        int record = undoHistory[historySize];
+        int from = Moves.from(move), to = Moves.to(move);
+        if (Moves.isPromotion(move)) {
+            int color = colorOf(removePiece(to));
+            putPiece(to, piece(color, PAWN));
+        } else if (Moves.isCastle(move)) {
+            if (to > from) {
+                movePiece(to - 1, to + 1);
+            } else {
+                movePiece(to + 1, to - 2);
+            }
+        }
+        movePiece(to, from);
+        int captured = (record >>> 4 & 15) - 1;
+        if (captured != EMPTY) {
+            putPiece(to, captured);
+        }
+        castlingRights = record & 15;
+        halfmoveClock = record >>> 8;
+        hash = hashHistory[historySize];
+    }
+
+    /**
+     * Passes the turn to the other player without moving a piece. A null move
+     * is not a legal move; searches make one to see how good a position is
+     * for the player to move even without moving. It must be undone with
+     * unmakeNullMove.
+     */
+    public void makeNullMove() {
+        growHistory();
+        hashHistory[historySize] = hash;
+        moveHistory[historySize] = Moves.NONE;
+        undoHistory[historySize++] = undoRecord(EMPTY, castlingRights, halfmoveClock);
+        hash ^= Zobrist.SIDE;
+        halfmoveClock++;
+    }
+
+    /**
+     * Undoes the null move made last in this position.
+     */
+    public void unmakeNullMove() {
+        halfmoveClock = undoHistory[--historySize] >>> 8;
+        hash = hashHistory[historySize];
+    }
+
+    /**
+     * Doubles the capacity of the move history if it is full.
+     */
+    private void growHistory() {
+        if (historySize == moveHistory.length) {
+            moveHistory = Arrays.copyOf(moveHistory, historySize * 2);
+            undoHistory = Arrays.copyOf(undoHistory, historySize * 2);
+            hashHistory = Arrays.copyOf(hashHistory, historySize * 2);
+        }
+    }
+
+    /**
+     * Returns the state needed to undo a move packed into an int. Bits 0-3
+     * hold the castling rights, bits 4-7 the piece code of the captured
+     * piece plus one, and the remaining bits the halfmove clock.
+     *
+     * @param  captured        the piece code of the captured piece, or EMPTY
+     * @param  castlingRights  the castling rights before the move
+     * @param  halfmoveClock   the halfmove clock before the move
+     * @return                 the packed undo record
+     */
+    private static int undoRecord(int captured, int castlingRights, int halfmoveClock) {
+        return castlingRights | (captured + 1) << 4 | halfmoveClock << 8;
+    }
+
+    /**
+     * Returns the last move made in this position, or Moves.NONE.
+     *
+     * @return the last move made in this position, or Moves.NONE
+     */
+    public int lastMove() {
+        return historySize == 0 ? Moves.NONE : moveHistory[historySize - 1];
+    }
+
+    /**
+     * Returns true if the last six moves were the same two moves by each
+     * player repeated three times, false otherwise. Null moves are never
+     * counted as repeated.
+     *
+     * @return true if the last three moves by each player were the same,
+     *         false otherwise
+     */
+    public boolean lastThreeMovesSame() {
+        if (historySize < 6) {
+            return false;
+        }
+        int n = historySize;
+        int first = Moves.squares(moveHistory[n - 1]), second = Moves.squares(moveHistory[n - 2]);
+        return first != Moves.NONE && second != Moves.NONE
+                && first == Moves.squares(moveHistory[n - 3])
+                && first == Moves.squares(moveHistory[n - 5])
+                && second == Moves.squares(moveHistory[n - 4])
+                && second == Moves.squares(moveHistory[n - 6]);
+    }
+
+    /**
+     * Places the given piece on the given empty square.
+     *
+     * @param square  the index of the square
+     * @param piece   the piece code of the piece to place
+     */
+    public void putPiece(int square, int piece) {
+        long b = bit(square);
+        pieces[piece] |= b;
+        colors[piece >>> 3] |= b;
+        occupied |= b;
+        squares[square] = piece;
+        hash ^= Zobrist.piece(piece, square);
+        counts[piece]++;
+        counts[piece | 7]++;
+    }
+
+    /**
+     * Removes and returns the piece on the given square.
+     *
+     * @param  square  the index of the square
+     * @return         the piece code of the removed piece, or EMPTY
+     */
+    public int removePiece(int square) {
+        int piece = squares[square];
+        if (piece != EMPTY) {
+            long b = bit(square);
+            pieces[piece] &= ~b;
+            colors[piece >>> 3] &= ~b;
+            occupied &= ~b;
+            squares[square] = EMPTY;
+            hash ^= Zobrist.piece(piece, square);
+            counts[piece]--;
+            counts[piece | 7]--;
+        }
+        return piece;
+    }
+
+    /**
+     * Moves the piece on the given start square to the given empty end square.
+     *
+     * @param from  the index of the square to move from
+     * @param to    the index of the square to move to
+     */
+    public void movePiece(int from, int to) {
+        int piece = squares[from];
+        long b = bit(from) | bit(to);
+        pieces[piece] ^= b;
+        colors[piece >>> 3] ^= b;
+        occupied ^= b;
+        squares[from] = EMPTY;
+        squares[to] = piece;
+        hash ^= Zobrist.piece(piece, from) ^ Zobrist.piece(piece, to);
+    }
+
+    /**
+     * Returns the squares attacked by the piece on the given square.
+     *
+     * @param  square  the index of a square occupied by a piece
+     * @return         the squares attacked by the piece on the given square
+     */
+    public long attacks(int square) {
+        int piece = squares[square];
+        switch (typeOf(piece)) {
+            case PAWN:
+                return Attacks.pawn(colorOf(piece), square);
+            case KNIGHT:
+                return Attacks.knight(square);
+            case BISHOP:
+                return Attacks.bishop(square, occupied);
+            case ROOK:
+                return Attacks.rook(square, occupied);
+            case QUEEN:
+                return Attacks.queen(square, occupied);
+            default:
+                return Attacks.king(square);
+        }
+    }
+
+    /**
+     * Returns the pieces of the given color that attack the given square if
+     * only the given squares were occupied.
+     *
+     * @param  square    the index of the attacked square
+     * @param  color     the color of the attacking pieces
+     * @param  occupied  the squares to treat as occupied by pieces of either color
+     * @return           the pieces of the given color that attack the square
+     */
+    public long attackersTo(int square, int color, long occupied) {
+        long queens = pieces[color << 3 | QUEEN];
+        return (Attacks.pawn(opposite(color), square) & pieces[color << 3 | PAWN])
+                | (Attacks.knight(square) & pieces[color << 3 | KNIGHT])
+                | (Attacks.king(square) & pieces[color << 3 | KING])
+                | (Attacks.bishop(square, occupied) & (pieces[color << 3 | BISHOP] | queens))
+                | (Attacks.rook(square, occupied) & (pieces[color << 3 | ROOK] | queens));
+    }
+
+    /**
+     * Returns true if the given square is attacked by a piece of the given
+     * color, false otherwise.
+     *
+     * @param  square  the index of the square
+     * @param  color   the color of the attacking pieces
+     * @return         true if the square is attacked by the given color, false otherwise
+     */
+    public boolean isSquareAttacked(int square, int color) {
+        return isSquareAttacked(square, color, occupied);
+    }
+
+    /**
+     * Returns true if the given square would be attacked by a piece of the
+     * given color if only the given squares were occupied, false otherwise.
+     * Looks outward from the square for each kind of attacker, so no attack
+     * maps are built for the attacking pieces.
+     *
+     * @param  square    the index of the square
+     * @param  color     the color of the attacking pieces
+     * @param  occupied  the squares to treat as occupied by pieces of either color
+     * @return           true if the square is attacked by the given color, false otherwise
+     */
+    public boolean isSquareAttacked(int square, int color, long occupied) {
+        int c = color << 3;
+        if ((Attacks.knight(square) & pieces[c | KNIGHT]) != 0
+                || (Attacks.pawn(opposite(color), square) & pieces[c | PAWN]) != 0
+                || (Attacks.king(square) & pieces[c | KING]) != 0) {
+            return true;
+        }
+        long queens = pieces[c | QUEEN];
+        long rooks = pieces[c | ROOK] | queens;
+        if (rooks != 0 && (Attacks.rook(square, occupied) & rooks) != 0) {
+            return true;
+        }
+        long bishops = pieces[c | BISHOP] | queens;
+        return bishops != 0 && (Attacks.bishop(square, occupied) & bishops) != 0;
+    }
+
+    /**
+     * Returns true if the king of the given color is attacked, false otherwise.
+     *
+     * @param  color  the color of the king
+     * @return        true if the king of the given color is attacked, false otherwise
+     */
+    public boolean inCheck(int color) {
+        return isSquareAttacked(kingSquare(color), opposite(color), occupied);
+    }
+}
@@ -0,0 +1,69 @@
+package chess.bitboard;
+
+import java.util.*;
+
+import static chess.bitboard.Bitboards.*;
+
+/**
+ * Random keys for Zobrist hashing of positions. The hash of a position is the
+ * exclusive or of the key of each piece on its square, the key of the current
+ * castling rights, and the side key if black is to move. Since exclusive or
+ * undoes itself, making a move only needs to toggle the keys that change.
+ */
+public final class Zobrist {
+    /**
+     * The seed the keys are generated from, fixed so hashes are the same on
+     * every run.
+     */
+    private static final long SEED = 20261018L;
+
+    /**
+     * The key of each piece code on each square, indexed by piece code times
+     * 64 plus square index.
+     */
+    private static final long[] PIECES = new long[16 * NUM_SQUARES];
+
+    /**
+     * The key of each combination of castling rights.
+     */
+    private static final long[] CASTLING = new long[16];
+
+    /**
+     * The key toggled every time the side to move changes.
+     */
+    public static final long SIDE;
+
+    static {
+        Random random = new Random(SEED);
+        for (int i = 0; i < PIECES.length; i++) {
+            PIECES[i] = random.nextLong();
+        }
+        for (int i = 0; i < CASTLING.length; i++) {
+            CASTLING[i] = random.nextLong();
+        }
+        SIDE = random.nextLong();
+    }
+
+    private Zobrist() {}
+
+    /**
+     * Returns the key of the given piece on the given square.
+     *
+     * @param  piece   the piece code of the piece
+     * @param  square  the index of the square
+     * @return         the key of the piece on the square
+     */
+    public static long piece(int piece, int square) {
+        return PIECES[piece << 6 | square];
+    }
+
+    /**
+     * Returns the key of the given castling rights.
+     *
+     * @param  castlingRights  the castling rights as bit flags
+     * @return                 the key of the castling rights
+     */
+    public static long castling(int castlingRights) {
+        return CASTLING[castlingRights];
+    }
+}
@@ -1,6 +1,6 @@
 package chess.heuristics;
 
-import chess.*;
+import chess.bitboard.*;
 import chess.pieces.*;
 
 /**
@@ -26,13 +26,14 @@ public final class CombinationHeuristic implements Heuristic {
     }
 
     /**
-     * Calculates the heuristic value for the given board and color.
+     * Calculates the heuristic value for the given position and color.
      *
-     * @param  board  the board for which to calculate the heuristic value
-     * @param  color  the color for which to calculate the heuristic value
-     * @return        the heuristic value for the given board and color
+     * @param  position  the position for which to calculate the heuristic value
+     * @param  color     the color for which to calculate the heuristic value
+     * @return           the heuristic value for the given position and color
      */
-    public double calculateValue(Board board, Piece.Color color) {
-        return material.calculateValue(board, color) + positional.calculateValue(board, color);
+    public int calculateValue(Position position, Piece.Color color) {
+        return material.calculateValue(position, color)
+                + positional.calculateValue(position, color);
     }
 }
\ No newline at end of file
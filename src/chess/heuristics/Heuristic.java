@@ -1,18 +1,22 @@
 package chess.heuristics;
 
-import chess.*;
+import chess.bitboard.*;
 import chess.pieces.*;
 
 /**
- * A heuristic that can calculate the value of board states.
+ * A heuristic that can calculate the value of board states. Values are in
+ * centipawns, hundredths of the value of a pawn. Board states are given as
+ * bitboard positions, since a search makes its moves on the position of its
+ * board only, and the squares and pieces of the board are not updated.
  */
 public interface Heuristic {
     /**
-     * Calculates the heuristic value for the given board and color.
+     * Calculates the heuristic value for the given position and color.
      *
-     * @param  board  the board for which to calculate the heuristic value
-     * @param  color  the color for which to calculate the heuristic value
-     * @return        the heuristic value for the given board and color
+     * @param  position  the position for which to calculate the heuristic value
+     * @param  color     the color for which to calculate the heuristic value
+     * @return           the heuristic value for the given position and color, in
+     *                   centipawns
      */
-    double calculateValue(Board board, Piece.Color color);
+    int calculateValue(Position position, Piece.Color color);
 }
@@ -1,10 +1,8 @@
 package chess.heuristics;
 
-import chess.*;
+import chess.bitboard.*;
 import chess.pieces.*;
 
-import java.util.*;
-
 import static chess.pieces.Piece.Color.*;
 
 /**
@@ -12,31 +10,58 @@ import static chess.pieces.Piece.Color.*;
  */
 public final class MaterialHeuristic implements Heuristic {
     /**
-     * Calculates the heuristic value for the given board and color.
+     * The weight material values are multiplied by, so one point of material
+     * is worth this much heuristic value: a pawn is worth 100 centipawns.
+     */
+    public static final int MATERIAL_WEIGHT = 100;
+
+    /**
+     * The material value of each piece type, indexed by bitboard piece type.
+     */
+    private static final int[] VALUES = {
+            Pawn.VALUE, Knight.VALUE, Bishop.VALUE, Rook.VALUE, Queen.VALUE, King.VALUE
+    };
+
+    /**
+     * Calculates the heuristic value for the given position and color.
      *
-     * @param  board  the board for which to calculate the heuristic value
-     * @param  color  the color for which to calculate the heuristic value
-     * @return        the heuristic value for the given board and color
+     * @param  position  the position for which to calculate the heuristic value
+     * @param  color     the color for which to calculate the heuristic value
+     * @return           the heuristic value for the given position and color
      */
-    public double calculateValue(Board board, Piece.Color color) {
-        return (evaluate(board, color) - evaluate(board, oppositeColor(color)));
+    public int calculateValue(Position position, Piece.Color color) {
+        return (evaluate(position, color) - evaluate(position, oppositeColor(color)));
     }
 
     /**
-     * Calculates the heuristic value for the given board and color, only
+     * Calculates the heuristic value for the given position and color, only
      * considering pieces of the given color.
      *
-     * @param  board  the board for which to calculate the heuristic value
-     * @param  color  the color for which to calculate the heuristic value
-     * @return        the heuristic value for the given board and color, only
-     *                considering pieces of the given color
+     * @param  position  the position for which to calculate the heuristic value
+     * @param  color     the color for which to calculate the heuristic value
+     * @return           the heuristic value for the given position and color,
+     *                   only considering pieces of the given color
      */
-    private double evaluate(Board board, Piece.Color color) {
-        Set<Piece> pieces = board.getPieces(color);
-        // weight by 0.05 (arbitrary) as number of points matter more
-        double numPiecesAdv = pieces.size() * 0.05;
-        // weight by 1.5 as this is important
-        double materialAdv = pieces.stream().mapToDouble(Piece::getValue).sum() * 1.5;
+    private int evaluate(Position position, Piece.Color color) {
+        // weight by 10/3 (arbitrary) as number of points matter more
+        int numPiecesAdv = position.count(color.getIndex()) * 10 / 3;
+        int materialAdv = material(position, color.getIndex()) * MATERIAL_WEIGHT;
         return numPiecesAdv + materialAdv;
     }
+
+    /**
+     * Returns the total material value of the pieces of the given color in
+     * the given position.
+     *
+     * @param  position  the position to count material in
+     * @param  color     the bitboard index of the color of the pieces to count
+     * @return           the total material value of the pieces of the given color
+     */
+    static int material(Position position, int color) {
+        int material = 0;
+        for (int type = Position.PAWN; type <= Position.KING; type++) {
+            material += position.count(color, type) * VALUES[type];
+        }
+        return material;
+    }
 }
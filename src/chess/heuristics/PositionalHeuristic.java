@@ -1,10 +1,8 @@
 package chess.heuristics;
 
-import chess.*;
+import chess.bitboard.*;
 import chess.pieces.*;
 
-import java.util.*;
-
 import static chess.pieces.Piece.Color.*;
 
 /**
@@ -15,7 +13,7 @@ public final class PositionalHeuristic implements Heuristic {
      * Evaluation tables for determining positional values of pieces.
      * Tables taken from https://www.chessprogramming.org/Simplified_Evaluation_Function
      */
-    private static final double[][] whitePawnTable = {
+    private static final int[][] whitePawnTable = {
             {100, 100, 100, 100, 100, 100, 100, 100},
             {50, 50, 50, 50, 50, 50, 50, 50},
             {10, 10, 20, 30, 30, 20, 10, 10},
@@ -26,7 +24,7 @@ public final class PositionalHeuristic implements Heuristic {
             {0,  0,  0,  0,  0,  0,  0,  0}
     };
 
-    private static final double[][] whiteKnightTable = {
+    private static final int[][] whiteKnightTable = {
             {-50,-40,-30,-30,-30,-30,-40,-50},
             {-40,-20,  0,  0,  0,  0,-20,-40},
             {-30,  0, 10, 15, 15, 10,  0,-30},
@@ -37,7 +35,7 @@ public final class PositionalHeuristic implements Heuristic {
             {-50,-40,-30,-30,-30,-30,-40,-50}
     };
 
-    private static final double[][] whiteBishopTable = {
+    private static final int[][] whiteBishopTable = {
             {-20,-10,-10,-10,-10,-10,-10,-20},
             {-10,  0,  0,  0,  0,  0,  0,-10},
             {-10,  0,  5, 10, 10,  5,  0,-10},
@@ -48,7 +46,7 @@ public final class PositionalHeuristic implements Heuristic {
             {-20,-10,-10,-10,-10,-10,-10,-20}
     };
 
-    private static final double[][] whiteRookTable = {
+    private static final int[][] whiteRookTable = {
             {0,  0,  0,  0,  0,  0,  0,  0},
             {5, 10, 10, 10, 10, 10, 10,  5},
             {-5,  0,  0,  0,  0,  0,  0, -5},
@@ -59,7 +57,7 @@ public final class PositionalHeuristic implements Heuristic {
             {0,  0,  0,  5,  5,  0,  0,  0}
     };
 
-    private static final double[][] whiteQueenTable = {
+    private static final int[][] whiteQueenTable = {
             {-20,-10,-10, -5, -5,-10,-10,-20},
             {-10,  0,  0,  0,  0,  0,  0,-10},
             {-10,  0,  5,  5,  5,  5,  0,-10},
@@ -70,7 +68,7 @@ public final class PositionalHeuristic implements Heuristic {
             {-20,-10,-10, -5, -5,-10,-10,-20}
     };
 
-    private static final double[][] whiteKingTable = {
+    private static final int[][] whiteKingTable = {
             {-30,-40,-40,-50,-50,-40,-40,-30},
             {-30,-40,-40,-50,-50,-40,-40,-30},
             {-30,-40,-40,-50,-50,-40,-40,-30},
@@ -81,7 +79,7 @@ public final class PositionalHeuristic implements Heuristic {
             {20, 30, 10,  0,  0, 10, 30, 20}
     };
 
-    private static final double[][] whiteKingEndgameTable = {
+    private static final int[][] whiteKingEndgameTable = {
             {-50,-40,-30,-20,-20,-30,-40,-50},
             {-30,-20,-10,  0,  0,-10,-20,-30},
             {-30,-10, 20, 30, 30, 20,-10,-30},
@@ -92,37 +90,29 @@ public final class PositionalHeuristic implements Heuristic {
             {-50,-30,-30,-30,-30,-30,-30,-50}
     };
 
-    private static final double[][] blackPawnTable = flip(whitePawnTable);
-    private static final double[][] blackKnightTable = flip(whiteKnightTable);
-    private static final double[][] blackBishopTable = flip(whiteBishopTable);
-    private static final double[][] blackRookTable = flip(whiteRookTable);
-    private static final double[][] blackQueenTable = flip(whiteQueenTable);
-    private static final double[][] blackKingTable = flip(whiteKingTable);
-    private static final double[][] blackKingEndgameTable = flip(whiteKingEndgameTable);
+    private static final int[][] blackPawnTable = flip(whitePawnTable);
+    private static final int[][] blackKnightTable = flip(whiteKnightTable);
+    private static final int[][] blackBishopTable = flip(whiteBishopTable);
+    private static final int[][] blackRookTable = flip(whiteRookTable);
+    private static final int[][] blackQueenTable = flip(whiteQueenTable);
+    private static final int[][] blackKingTable = flip(whiteKingTable);
+    private static final int[][] blackKingEndgameTable = flip(whiteKingEndgameTable);
 
     /**
-     * Maps white pieces to their evaluation tables.
+     * The evaluation tables of white pieces, indexed by bitboard piece type.
      */
-    private static final Map<Class, double[][]> whiteEvalTables = Map.of(
-            Pawn.class, whitePawnTable,
-            Knight.class, whiteKnightTable,
-            Bishop.class, whiteBishopTable,
-            Rook.class, whiteRookTable,
-            Queen.class, whiteQueenTable,
-            King.class, whiteKingTable
-    );
+    private static final int[][][] whiteEvalTables = {
+            whitePawnTable, whiteKnightTable, whiteBishopTable,
+            whiteRookTable, whiteQueenTable, whiteKingTable
+    };
 
     /**
-     * Maps black pieces to their evaluation tables.
+     * The evaluation tables of black pieces, indexed by bitboard piece type.
      */
-    private static final Map<Class, double[][]> blackEvalTables = Map.of(
-            Pawn.class, blackPawnTable,
-            Knight.class, blackKnightTable,
-            Bishop.class, blackBishopTable,
-            Rook.class, blackRookTable,
-            Queen.class, blackQueenTable,
-            King.class, blackKingTable
-    );
+    private static final int[][][] blackEvalTables = {
+            blackPawnTable, blackKnightTable, blackBishopTable,
+            blackRookTable, blackQueenTable, blackKingTable
+    };
 
     /**
      * Flips the given 2D array vertically.
@@ -130,8 +120,8 @@ public final class PositionalHeuristic implements Heuristic {
      * @param  table  the 2D array to flip
      * @return        the given array flipped vertically
      */
-    private static double[][] flip(double[][] table) {
-        double[][] result = new double[table.length][table[0].length];
+    private static int[][] flip(int[][] table) {
+        int[][] result = new int[table.length][table[0].length];
         for (int i = 0; i < table.length / 2; i++) {
             result[i] = table[table.length - 1 - i];
             result[table.length - 1 - i] = table[i];
@@ -140,56 +130,58 @@ public final class PositionalHeuristic implements Heuristic {
     }
 
     /**
-     * Calculates the heuristic value for the given board and color.
+     * Calculates the heuristic value for the given position and color.
      *
-     * @param  board  the board for which to calculate the heuristic value
-     * @param  color  the color for which to calculate the heuristic value
-     * @return        the heuristic value for the given board and color
+     * @param  position  the position for which to calculate the heuristic value
+     * @param  color     the color for which to calculate the heuristic value
+     * @return           the heuristic value for the given position and color
      */
-    public double calculateValue(Board board, Piece.Color color) {
-        return (evaluate(board, color) - evaluate(board, oppositeColor(color)));
+    public int calculateValue(Position position, Piece.Color color) {
+        return (evaluate(position, color) - evaluate(position, oppositeColor(color)));
     }
 
     /**
-     * Calculates the heuristic value for the given board and color, only
+     * Calculates the heuristic value for the given position and color, only
      * considering pieces of the given color.
      *
-     * @param  board  the board for which to calculate the heuristic value
-     * @param  color  the color for which to calculate the heuristic value
-     * @return        the heuristic value for the given board and color, only
-     *                considering pieces of the given color
+     * @param  position  the position for which to calculate the heuristic value
+     * @param  color     the color for which to calculate the heuristic value
+     * @return           the heuristic value for the given position and color,
+     *                   only considering pieces of the given color
      */
-    private double evaluate(Board board, Piece.Color color) {
-        // weight by 0.02 (arbitrary) as position is more important
-        double numMovesAdv = board.getPossibleMoves(color).size() * 0.02;
-        // weight by 1.1 but multiply by 0.011 as tables are weighted by 100
-        double positionAdv = board.getPieces(color).stream()
-                .mapToDouble(PositionalHeuristic::value).sum() * 0.011;
+    private int evaluate(Position position, Piece.Color color) {
+        // weight by 4/3 (arbitrary) as position is more important
+        int numMovesAdv = MoveGenerator.countLegalMoves(position, color.getIndex()) * 4 / 3;
+        // weight the tables, which are in centipawns, by 11/15
+        int positionAdv = value(position, color.getIndex()) * 11 / 15;
         // Give a small bonus for check, larger bonuses cause bigger piece losses
-        double checkAdv = board.inCheck(oppositeColor(color)) ? inEndgame(board) ? 6 : 3 : 0;
+        int enemyKing = position.kingSquare(Position.opposite(color.getIndex()));
+        int checkAdv = position.isSquareAttacked(enemyKing, color.getIndex())
+                ? inEndgame(position) ? 400 : 200 : 0;
         return numMovesAdv + positionAdv + checkAdv;
     }
 
     /**
-     * Returns the positional value of the given piece.
+     * Returns the total positional value of the pieces of the given color.
      *
-     * @param  piece  the piece for which to calculate the positional value
-     * @return        the positional value of the given piece
+     * @param  position  the position for which to calculate the positional value
+     * @param  color     the bitboard index of the color of the pieces
+     * @return           the total positional value of the pieces of the given color
      */
-    private static double value(Piece piece) {
-        int row = piece.getPosition().getRow();
-        int col = piece.getPosition().getCol();
-        if (piece.getColor() == WHITE) {
-            if (piece instanceof King && inEndgame(piece.getPosition().getBoard())) {
-                return whiteKingEndgameTable[row][col];
+    private static int value(Position position, int color) {
+        int[][][] tables = color == Position.WHITE ? whiteEvalTables : blackEvalTables;
+        int value = 0;
+        for (int type = Position.PAWN; type <= Position.KING; type++) {
+            int[][] table = tables[type];
+            if (type == Position.KING && inEndgame(position)) {
+                table = color == Position.WHITE ? whiteKingEndgameTable : blackKingEndgameTable;
             }
-            return whiteEvalTables.get(piece.getClass())[row][col];
-        } else {
-            if (piece instanceof King && inEndgame(piece.getPosition().getBoard())) {
-                return blackKingEndgameTable[row][col];
+            for (long b = position.pieces(color, type); b != 0; b &= b - 1) {
+                int square = Bitboards.first(b);
+                value += table[Bitboards.row(square)][Bitboards.col(square)];
             }
-            return blackEvalTables.get(piece.getClass())[row][col];
         }
+        return value;
     }
 
     /**
@@ -197,12 +189,12 @@ public final class PositionalHeuristic implements Heuristic {
      * board is considered to be in the endgame if both players have pieces
      * with a total material value less than 10, excluding kings.
      *
-     * @param  board  the board to determine endgame status of
-     * @return        true if the given board is in the endgame, false otherwise
+     * @param  position  the position to determine endgame status of
+     * @return           true if the given board is in the endgame, false otherwise
      */
-    private static boolean inEndgame(Board board) {
+    private static boolean inEndgame(Position position) {
         // In endgame if less both sides have less than 10 points of pieces left, not counting king
-        return board.getPieces(WHITE).stream().mapToDouble(Piece::getValue).sum() < 210 &&
-                board.getPieces(BLACK).stream().mapToDouble(Piece::getValue).sum() < 210;
+        return MaterialHeuristic.material(position, Position.WHITE) < 210 &&
+                MaterialHeuristic.material(position, Position.BLACK) < 210;
     }
 }
\ No newline at end of file
@@ -1,8 +1,7 @@
 package chess.pieces;
 
 import chess.*;
-
-import java.util.*;
+import chess.bitboard.*;
 
 /**
  * A bishop. Bishops can move any number of squares diagonally, but they cannot
@@ -30,13 +29,11 @@ public final class Bishop extends Piece {
     }
 
     /**
-     * Returns a set containing all the moves this bishop can make. May return
-     * illegal moves if onlyLegalMoves is false.
+     * Returns the index of the bishop type in a bitboard position.
      *
-     * @param  onlyLegalMoves  whether to only consider legal moves or not
-     * @return a set containing all the moves this bishop can make
+     * @return the index of the bishop type in a bitboard position
      */
-    public Set<Move> getPossibleMoves(boolean onlyLegalMoves) {
-        return getDiagonalMoves(onlyLegalMoves);
+    public int getType() {
+        return Position.BISHOP;
     }
-}
\ No newline at end of file
+}
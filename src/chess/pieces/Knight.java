@@ -1,8 +1,7 @@
 package chess.pieces;
 
 import chess.*;
-
-import java.util.*;
+import chess.bitboard.*;
 
 /**
  * A knight. Knights can only move in special moves that are made of 2 squares
@@ -31,21 +30,11 @@ public final class Knight extends Piece {
     }
 
     /**
-     * Returns a set containing all the moves this knight can make. May return
-     * illegal moves if onlyLegalMoves is false.
+     * Returns the index of the knight type in a bitboard position.
      *
-     * @param  onlyLegalMoves  whether to only consider legal moves or not
-     * @return a set containing all the moves this knight can make
+     * @return the index of the knight type in a bitboard position
      */
-    public Set<Move> getPossibleMoves(boolean onlyLegalMoves) {
-        Set<Move> possibleMoves = getPossibleMoves(2, 1, 1, onlyLegalMoves);
-        possibleMoves.addAll(getPossibleMoves(2, -1, 1, onlyLegalMoves));
-        possibleMoves.addAll(getPossibleMoves(-2, 1, 1, onlyLegalMoves));
-        possibleMoves.addAll(getPossibleMoves(-2, -1, 1, onlyLegalMoves));
-        possibleMoves.addAll(getPossibleMoves(1, 2, 1, onlyLegalMoves));
-        possibleMoves.addAll(getPossibleMoves(1, -2, 1, onlyLegalMoves));
-        possibleMoves.addAll(getPossibleMoves(-1, 2, 1, onlyLegalMoves));
-        possibleMoves.addAll(getPossibleMoves(-1, -2, 1, onlyLegalMoves));
-        return possibleMoves;
+    public int getType() {
+        return Position.KNIGHT;
     }
 }
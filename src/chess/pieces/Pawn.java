@@ -1,8 +1,7 @@
 package chess.pieces;
 
 import chess.*;
-
-import java.util.*;
+import chess.bitboard.*;
 
 /**
  * A pawn. Pawns can only move on square forward, or two squares forward if
@@ -31,64 +30,11 @@ public final class Pawn extends Piece {
     }
 
     /**
-     * Returns a set containing all the moves this pawn can make. May return
-     * illegal moves if onlyLegalMoves is false.
-     *
-     * @param  onlyLegalMoves  whether to only consider legal moves or not
-     * @return a set containing all the moves this pawn can make
-     */
-    public Set<Move> getPossibleMoves(boolean onlyLegalMoves) {
-        Set<Move> possibleMoves = getStraightMoves(-color.getMultiplier(), onlyLegalMoves);
-        possibleMoves.addAll(getCaptureMove(1, -color.getMultiplier(), onlyLegalMoves));
-        possibleMoves.addAll(getCaptureMove(-1, -color.getMultiplier(), onlyLegalMoves));
-        return possibleMoves;
-    }
-
-    /**
-     * Returns a set containing the moves this pawn can make by only going forward.
-     *
-     * @param  dy              the direction to move forward (-1 for white, 1 for black)
-     * @param  onlyLegalMoves  whether to only consider legal moves or not
-     * @return                 a set containing the moves this pawn can make by
-     *                         only going forward
-     */
-    protected Set<Move> getStraightMoves(int dy, boolean onlyLegalMoves) {
-        Set<Move> possibleMoves = new HashSet<>();
-        try {
-            Square finalPosition = position.getBoard().squareAt(position.getRow() + dy,
-                                                                position.getCol());
-            if (finalPosition.isEmpty()) {
-                addIfLegal(new Move(position, finalPosition), possibleMoves, onlyLegalMoves);
-                finalPosition = finalPosition.getBoard().squareAt(finalPosition.getRow() + dy,
-                                                                  finalPosition.getCol());
-                if (!alreadyMoved && finalPosition.isEmpty()) {
-                    addIfLegal(new Move(position, finalPosition), possibleMoves,
-                                    onlyLegalMoves);
-                }
-            }
-        } catch (IllegalArgumentException e) {}
-        return possibleMoves;
-    }
-
-    /**
-     * Returns a set containing the moves this pawn can make by capturing
-     * pieces in the immediate forward diagonal squares.
+     * Returns the index of the pawn type in a bitboard position.
      *
-     * @param  dx              the direction to move horizontally
-     * @param  dy              the direction to move forward (-1 for white, 1 for black)
-     * @param  onlyLegalMoves  whether to only consider legal moves or not
-     * @return                 a set containing the moves this pawn can make by
-     *                         capturing pieces in the immediate forward diagonal squares
+     * @return the index of the pawn type in a bitboard position
      */
-    private Set<Move> getCaptureMove(int dx, int dy, boolean onlyLegalMoves) {
-        Set<Move> returnMove = new HashSet<>();
-        try {
-            Square finalPosition = position.getBoard().squareAt(position.getRow() + dy,
-                                                                position.getCol() + dx);
-            if (!finalPosition.isEmpty() && finalPosition.getPiece().color != color) {
-                addIfLegal(new Move(position, finalPosition), returnMove, onlyLegalMoves);
-            }
-        } catch (IllegalArgumentException e) {}
-        return returnMove;
+    public int getType() {
+        return Position.PAWN;
     }
 }
@@ -1,6 +1,7 @@
 package chess.pieces;
 
 import chess.*;
+import chess.bitboard.*;
 
 import java.util.*;
 
@@ -64,7 +65,9 @@ public abstract class Piece {
      * @param  onlyLegalMoves  whether to only consider legal moves or not
      * @return a set containing all the moves this piece can make
      */
-    public abstract Set<Move> getPossibleMoves(boolean onlyLegalMoves);
+    public Set<Move> getPossibleMoves(boolean onlyLegalMoves) {
+        return position.getBoard().getPossibleMoves(this, onlyLegalMoves);
+    }
 
     /**
      * Returns a set containing all the legal moves this piece can make.
@@ -75,6 +78,13 @@ public abstract class Piece {
         return getPossibleMoves(true);
     }
 
+    /**
+     * Returns the index of this piece's type in a bitboard position.
+     *
+     * @return the index of this piece's type in a bitboard position
+     */
+    public abstract int getType();
+
     /**
      * Returns the material value of this piece.
      *
@@ -142,137 +152,6 @@ public abstract class Piece {
         this.alreadyMoved = alreadyMoved;
     }
 
-    /**
-     * Returns a set containing all the moves this piece can make by only
-     * moving straight along ranks and files. May return illegal moves if
-     * onlyLegalMoves is false.
-     *
-     * @param  onlyLegalMoves  whether to only consider legal moves or not
-     * @return                 a set containing all the moves this piece can
-     *                         make by only moving straight along ranks and files
-     */
-    protected Set<Move> getStraightMoves(boolean onlyLegalMoves) {
-        return getStraightMoves(Board.NUM_ROWS - 1, onlyLegalMoves);
-    }
-
-    /**
-     * Returns a set containing all the moves this piece can make by only
-     * moving straight along ranks and files to the maximum depth. May return
-     * illegal moves if onlyLegalMoves is false.
-     *
-     * @param  maxDepth        the maximum number of squares the piece can move
-     * @param  onlyLegalMoves  whether to only consider legal moves or not
-     * @return                 a set containing all the moves this piece can
-     *                         make by only moving straight along ranks and
-     *                         files to the maximum depth
-     */
-    protected Set<Move> getStraightMoves(int maxDepth, boolean onlyLegalMoves) {
-        Set<Move> possibleMoves = getPossibleMoves(1, 0, maxDepth, onlyLegalMoves);
-        possibleMoves.addAll(getPossibleMoves(-1, 0, maxDepth, onlyLegalMoves));
-        possibleMoves.addAll(getPossibleMoves(0, 1, maxDepth, onlyLegalMoves));
-        possibleMoves.addAll(getPossibleMoves(0, -1, maxDepth, onlyLegalMoves));
-        return possibleMoves;
-    }
-
-    /**
-     * Returns a set containing all the moves this piece can make by only
-     * moving diagonally. May return illegal moves if onlyLegalMoves is false.
-     *
-     * @param  onlyLegalMoves  whether to only consider legal moves or not
-     * @return                 a set containing all the moves this piece can
-     *                         make by only moving diagonally
-     */
-    protected Set<Move> getDiagonalMoves(boolean onlyLegalMoves) {
-        return getDiagonalMoves(Board.NUM_ROWS - 1, onlyLegalMoves);
-    }
-
-    /**
-     * Returns a set containing all the moves this piece can make by only
-     * moving diagonally to the maximum depth. May return illegal moves if
-     * onlyLegalMoves is false.
-     *
-     * @param  maxDepth        the maximum number of squares the piece can move
-     * @param  onlyLegalMoves  whether to only consider legal moves or not
-     * @return                 a set containing all the moves this piece can
-     *                         make by only moving diagonally to the maximum depth
-     */
-    protected Set<Move> getDiagonalMoves(int maxDepth, boolean onlyLegalMoves) {
-        Set<Move> possibleMoves = getPossibleMoves(1, 1, maxDepth, onlyLegalMoves);
-        possibleMoves.addAll(getPossibleMoves(1, -1, maxDepth, onlyLegalMoves));
-        possibleMoves.addAll(getPossibleMoves(-1, -1, maxDepth, onlyLegalMoves));
-        possibleMoves.addAll(getPossibleMoves(-1, 1, maxDepth, onlyLegalMoves));
-        return possibleMoves;
-    }
-
-    /**
-     * Returns a set containing all the moves this piece can make by only
-     * moving in multiples of dx and dy to the maximum depth.
-     *
-     * @param  dx              the number of squares to move horizontally
-     * @param  dy              the number of squares to move vertically
-     * @param  maxDepth        the maximum number of squares the piece can move
-     * @param  onlyLegalMoves  whether to only consider legal moves or not
-     * @return                 a set containing all the moves this piece can
-     *                         make by only moving in multiples of dx and dy to
-     *                         the maximum depth
-     */
-    protected Set<Move> getPossibleMoves(int dx, int dy, int maxDepth, boolean onlyLegalMoves) {
-        return getPossibleMoves(position, dx, dy, maxDepth, onlyLegalMoves);
-    }
-
-    /**
-     * Returns a set containing all the moves this piece can make by starting
-     * at the specified position and only moving in multiples of dx and dy to
-     * the maximum depth.
-     *
-     * @param  startPosition   the square to start moving from
-     * @param  dx              the number of squares to move horizontally
-     * @param  dy              the number of squares to move vertically
-     * @param  maxDepth        the maximum number of squares the piece can move
-     * @param  onlyLegalMoves  whether to only consider legal moves or not
-     * @return                 a set containing all the moves this piece can
-     *                         make by only moving in multiples of dx and dy to
-     *                         the maximum depth
-     */
-    protected Set<Move> getPossibleMoves(Square startPosition, int dx, int dy, int maxDepth,
-                                         boolean onlyLegalMoves) {
-        Set<Move> possibleMoves = new HashSet<>();
-        if (maxDepth > 0) {
-            try {
-                Square finalPosition = startPosition.getBoard()
-                        .squareAt(startPosition.getRow() + dy, startPosition.getCol() + dx);
-                if (finalPosition.isEmpty()) {
-                    possibleMoves = getPossibleMoves(finalPosition, dx, dy, maxDepth - 1,
-                                                     onlyLegalMoves);
-                    addIfLegal(new Move(position, finalPosition), possibleMoves, onlyLegalMoves);
-                } else if (finalPosition.getPiece().color != color) {
-                    addIfLegal(new Move(position, finalPosition), possibleMoves, onlyLegalMoves);
-                }
-            } catch (IllegalArgumentException e) {}
-        }
-        return possibleMoves;
-    }
-
-    /**
-     * Adds the given move to the given set if the given move is legal.
-     *
-     * @param move            the move to add to the set if it is legal
-     * @param possibleMoves   the set to add the move to if it is legal
-     * @param onlyLegalMoves  whether legality of the move should be considered
-     */
-    protected void addIfLegal(Move move, Set<Move> possibleMoves, boolean onlyLegalMoves) {
-        if (!onlyLegalMoves) {
-            possibleMoves.add(move);
-            return;
-        }
-        Board board = position.getBoard();
-        board.doMove(move);
-        if (!board.inCheck(color)) {
-            possibleMoves.add(move);
-        }
-        board.undoLastMove();
-    }
-
     /**
      * Returns a string representation of this piece.
      *
@@ -344,6 +223,15 @@ public abstract class Piece {
             return multiplier;
         }
 
+        /**
+         * Returns the index of this color in a bitboard position.
+         *
+         * @return the index of this color in a bitboard position
+         */
+        public int getIndex() {
+            return this == WHITE ? Position.WHITE : Position.BLACK;
+        }
+
         /**
          * Returns the color opposite of the given color.
          *
@@ -1,8 +1,7 @@
 package chess.pieces;
 
 import chess.*;
-
-import java.util.*;
+import chess.bitboard.*;
 
 /**
  * A queen. Queens can move any number of squares diagonally or straight along
@@ -30,15 +29,11 @@ public final class Queen extends Piece {
     }
 
     /**
-     * Returns a set containing all the moves this queen can make. May return
-     * illegal moves if onlyLegalMoves is false.
+     * Returns the index of the queen type in a bitboard position.
      *
-     * @param  onlyLegalMoves  whether to only consider legal moves or not
-     * @return a set containing all the moves this queen can make
+     * @return the index of the queen type in a bitboard position
      */
-    public Set<Move> getPossibleMoves(boolean onlyLegalMoves) {
-        Set<Move> possibleMoves = getStraightMoves(onlyLegalMoves);
-        possibleMoves.addAll(getDiagonalMoves(onlyLegalMoves));
-        return possibleMoves;
+    public int getType() {
+        return Position.QUEEN;
     }
 }
@@ -1,8 +1,7 @@
 package chess.pieces;
 
 import chess.*;
-
-import java.util.*;
+import chess.bitboard.*;
 
 /**
  * A rook. Rooks can move any number of squares straight along ranks and files,
@@ -30,13 +29,11 @@ public final class Rook extends Piece {
     }
 
     /**
-     * Returns a set containing all the moves this rook can make. May return
-     * illegal moves if onlyLegalMoves is false.
+     * Returns the index of the rook type in a bitboard position.
      *
-     * @param  onlyLegalMoves  whether to only consider legal moves or not
-     * @return a set containing all the moves this rook can make
+     * @return the index of the rook type in a bitboard position
      */
-    public Set<Move> getPossibleMoves(boolean onlyLegalMoves) {
-        return getStraightMoves(onlyLegalMoves);
+    public int getType() {
+        return Position.ROOK;
     }
 }
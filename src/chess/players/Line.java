@@ -0,0 +1,86 @@
+package chess.players;
+
+import chess.*;
+import chess.search.*;
+
+import java.util.*;
+
+/**
+ * One line found by a search: a move, its exact value, and its principal
+ * variation, the moves both players are expected to make starting with it.
+ */
+public final class Line {
+    /**
+     * The moves of the principal variation, starting with the move of this
+     * line.
+     */
+    private final List<Move> moves;
+
+    /**
+     * The value of the move of this line for the player making it, in
+     * centipawns or as a mate score.
+     */
+    private final int value;
+
+    /**
+     * Constructs a new line with the given principal variation and value.
+     *
+     * @param moves  the moves of the principal variation, at least one
+     * @param value  the value of the first move for the player making it
+     */
+    public Line(List<Move> moves, int value) {
+        this.moves = Collections.unmodifiableList(new ArrayList<>(moves));
+        this.value = value;
+    }
+
+    /**
+     * Returns the move of this line.
+     *
+     * @return the move of this line
+     */
+    public Move getMove() {
+        return moves.get(0);
+    }
+
+    /**
+     * Returns the moves of the principal variation of this line, starting
+     * with the move of this line.
+     *
+     * @return an unmodifiable list of the moves of the principal variation
+     */
+    public List<Move> getMoves() {
+        return moves;
+    }
+
+    /**
+     * Returns the value of the move of this line for the player making it,
+     * in centipawns or as a mate score.
+     *
+     * @return the value of the move of this line
+     */
+    public int getValue() {
+        return value;
+    }
+
+    /**
+     * Returns a string representation of this line: its value, in pawns or
+     * as the number of moves to mate, negative when being mated, followed by
+     * its principal variation.
+     *
+     * @return a string representation of this line
+     */
+    @Override
+    public String toString() {
+        StringBuilder result = new StringBuilder();
+        if (Scores.isMate(value)) {
+            int moves = (Scores.MATE - Math.abs(value) + 1) / 2;
+            result.append('#').append(value > 0 ? moves : -moves);
+        } else {
+            result.append(String.format("%+.2f", value / 100.0));
+        }
+        for (Move move : moves) {
+            result.append(' ').append(move);
+        }
+        return result.toString();
+    }
+}
@@ -1,15 +1,20 @@
 package chess.players;
 
 import chess.*;
+import chess.bitboard.*;
 import chess.pieces.*;
 import chess.heuristics.*;
+import chess.search.*;
 
 import java.util.*;
+import java.util.concurrent.*;
 
 import static chess.pieces.Piece.Color.*;
 
 /**
- * A player that uses the minimax algorithm to select its moves.
+ * A player that uses the minimax algorithm to select its moves. The search
+ * makes and unmakes packed moves directly on the board's bitboard position,
+ * and only the moves at the root are turned into {@link Move} objects.
  */
 public class MinimaxPlayer extends Player {
     /**
@@ -18,19 +23,28 @@ public class MinimaxPlayer extends Player {
     public static final int DEFAULT_SEARCH_DEPTH = 3;
 
     /**
-     * The search depth to use when there are few pieces left on the board.
+     * The search depth for the extreme difficulty computer player.
      */
-    public static final int LOW_PIECE_SEARCH_DEPTH = 6;
+    public static final int EXTREME_DIFFICULTY_SEARCH_DEPTH = 8;
 
     /**
-     * The search depth for the extreme difficulty computer player.
+     * The depth for the minimax algorithm to search to when there is no time
+     * control.
+     */
+    private final int searchDepth;
+
+    /**
+     * The time each move may take, or null to search to the search depth.
      */
-    public static final int EXTREME_DIFFICULTY_SEARCH_DEPTH = 6;
+    private TimeControl timeControl;
 
     /**
-     * The current depth for the minimax algorithm to search to.
+     * The time left on the clock of this player and the time added to it
+     * after each move, in milliseconds. The time left is -1 if this player
+     * has no clock.
      */
-    private int searchDepth;
+    private long clockMillis;
+    private long incrementMillis;
 
     /**
      * The heuristic to evaluate board states with.
@@ -38,9 +52,123 @@ public class MinimaxPlayer extends Player {
     private final Heuristic heuristic;
 
     /**
-     * Maps board states to sets of possible moves to improve minimax algorithm efficiency.
+     * The settings of the selective parts of the search.
+     */
+    private final SearchOptions options;
+
+    /**
+     * The results of earlier searches, used to cut off the search of board
+     * states already searched deep enough and to search best moves first.
+     * Shared by every searcher of this player.
+     */
+    private TranspositionTable table;
+
+    /**
+     * The size of the transposition table in megabytes, and the size set for
+     * it, which it is replaced with at the start of the next move.
+     */
+    private int tableSize;
+    private int hashSize;
+
+    /**
+     * The searcher that searches the board this player plays on.
+     */
+    private Searcher searcher;
+
+    /**
+     * The number of threads to search with.
+     */
+    private int threads;
+
+    /**
+     * The searchers of the helper threads, each on its own copy of the board,
+     * kept across moves while the number of threads stays the same.
      */
-    private final Map<String, SortedSet<Move>> memo;
+    private Searcher[] helpers;
+
+    /**
+     * The threads the helper searches run on, or null with one thread. Idle
+     * threads end after a while, so an abandoned player does not keep them.
+     */
+    private ThreadPoolExecutor helperPool;
+
+    /**
+     * Whether to search with the deterministic parallel search.
+     */
+    private boolean deterministic;
+
+    /**
+     * The deterministic parallel search, created when first needed.
+     */
+    private YoungBrothersWait youngBrothersWait;
+
+    /**
+     * Whether to search on the opponent's time after each move.
+     */
+    private boolean pondering;
+
+    /**
+     * The searcher searching the board state after the predicted reply of
+     * the opponent, on its own copy of the board, or null if this player is
+     * not pondering.
+     */
+    private Searcher ponderSearcher;
+
+    /**
+     * The thread running the ponder search, or null if this player is not
+     * pondering.
+     */
+    private Thread ponderThread;
+
+    /**
+     * The depth of the last iteration the ponder search completed.
+     */
+    private volatile int ponderDepth;
+
+    /**
+     * The searcher that selected the last move of this player: the searcher
+     * of the board, or the ponder searcher after a ponder hit.
+     */
+    private Searcher lastSearcher;
+
+    /**
+     * The lines found by the search of the last move this player selected.
+     */
+    private List<Line> lines;
+
+    /**
+     * The number of lines to search for when not picking between lines.
+     */
+    private int multiPv;
+
+    /**
+     * How strongly this player plays.
+     */
+    private SkillLevel skillLevel;
+
+    /**
+     * The source of the randomness of the choice between lines.
+     */
+    private final Random random;
+
+    /**
+     * The listener told about each iteration of the search of each move, or
+     * null.
+     */
+    private SearchListener searchListener;
+
+    /**
+     * The statistics of the search of the last move this player selected, or
+     * null if there is none.
+     */
+    private SearchStats searchStats;
+
+    /**
+     * The searcher and the deterministic search computing the move of this
+     * player, or null if there is none, for stop to stop.
+     */
+    private volatile Searcher activeSearcher;
+    private volatile YoungBrothersWait activeDeterministic;
 
     /**
      * Constructs a new minimax player with the given board, color, and heuristic.
@@ -65,79 +193,803 @@ public class MinimaxPlayer extends Player {
     public MinimaxPlayer(Board board, Piece.Color color, Heuristic heuristic, int searchDepth) {
         super(board, color);
         this.heuristic = heuristic;
-        memo = new HashMap<>();
+        hashSize = TranspositionTable.DEFAULT_SIZE_MB;
+        tableSize = hashSize;
+        table = new TranspositionTable(tableSize);
+        options = new SearchOptions();
+        searcher = new Searcher(board, heuristic, table, options);
+        lastSearcher = searcher;
+        lines = Collections.emptyList();
+        multiPv = 1;
+        skillLevel = SkillLevel.HARD;
+        random = new Random();
+        helpers = new Searcher[0];
+        threads = 1;
+        clockMillis = -1;
         this.searchDepth = searchDepth;
     }
 
     /**
-     * Returns the next move this player will make.
+     * Returns the settings of the selective parts of this player's search,
+     * which can be changed between moves.
+     *
+     * @return the search options of this player
+     */
+    public SearchOptions getSearchOptions() {
+        return options;
+    }
+
+    /**
+     * Returns the number of times the given pruning technique was used by
+     * the main search of the last move this player selected, not counting
+     * helper threads. After a ponder hit, this includes the pondering.
+     *
+     * @param  pruning  the pruning technique
+     * @return          the number of times the technique was used
+     */
+    public long getPruningCount(Pruning pruning) {
+        return lastSearcher.getPruningCount(pruning);
+    }
+
+    /**
+     * Returns the statistics of the main search of the last move this player
+     * selected, not counting helper threads: the depth reached, the value and
+     * principal variation of the best move, and the nodes searched, time
+     * taken, and transposition table and cutoff counts. After a ponder hit,
+     * this includes the pondering. The node count of the deterministic search
+     * includes every thread, but its other counts do not.
+     *
+     * @return the statistics of the last search, or null if there are none
+     */
+    public SearchStats getSearchStats() {
+        return searchStats;
+    }
+
+    /**
+     * Returns the listener told about each iteration of the search of each
+     * move, or null if there is none.
+     *
+     * @return the search listener of this player, or null
+     */
+    public SearchListener getSearchListener() {
+        return searchListener;
+    }
+
+    /**
+     * Sets the listener to tell about each iteration the main search of each
+     * move completes, with the statistics of the search right after it. The
+     * iterations completed while pondering are not reported.
+     *
+     * @param searchListener  the search listener, or null for none
+     */
+    public void setSearchListener(SearchListener searchListener) {
+        this.searchListener = searchListener;
+    }
+
+    /**
+     * Returns the number of moves this player finds exact values and
+     * principal variations for.
+     *
+     * @return the number of lines searched for
+     */
+    public int getMultiPv() {
+        return multiPv;
+    }
+
+    /**
+     * Sets the number of moves this player finds exact values and principal
+     * variations for, the best first, which getLines returns after each
+     * search. A number greater than the number of legal moves means every
+     * move. Only the best move's value is exact with one line, which is
+     * enough to select it. At least as many lines as the skill level picks
+     * between are searched either way.
+     *
+     * @param  multiPv  the number of lines to search for
+     * @throws IllegalArgumentException if multiPv is less than 1
+     */
+    public void setMultiPv(int multiPv) {
+        if (multiPv < 1) {
+            throw new IllegalArgumentException("Number of lines must be at least 1.");
+        }
+        this.multiPv = multiPv;
+    }
+
+    /**
+     * Returns how strongly this player plays.
+     *
+     * @return the skill level of this player
+     */
+    public SkillLevel getSkillLevel() {
+        return skillLevel;
+    }
+
+    /**
+     * Sets how strongly this player plays. Below full strength, the search is
+     * cut short by the depth and node limits of the skill level, and the
+     * move is picked at random from the lines found, as described by
+     * SkillLevel. The deterministic search only applies the depth limit.
+     *
+     * @param skillLevel  the skill level to play at
+     */
+    public void setSkillLevel(SkillLevel skillLevel) {
+        this.skillLevel = Objects.requireNonNull(skillLevel);
+    }
+
+    /**
+     * Returns the lines found by the search of the last move this player
+     * selected, the best first, as many as set by setMultiPv or picked
+     * between by the skill level. The deterministic search only finds as
+     * many as set by setMultiPv.
+     *
+     * @return an unmodifiable list of the lines of the last search
+     */
+    public List<Line> getLines() {
+        return lines;
+    }
+
+    /**
+     * Returns the number of threads this player searches with.
+     *
+     * @return the number of threads this player searches with
+     */
+    public int getThreads() {
+        return threads;
+    }
+
+    /**
+     * Sets the number of threads this player searches with. With more than
+     * one thread, helper threads search copies of the board alongside the
+     * main search and share its transposition table, so the main search
+     * finds more of its results already in the table.
+     *
+     * @param  threads  the number of threads to search with
+     * @throws IllegalArgumentException if threads is less than 1
+     */
+    public void setThreads(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Number of threads must be at least 1.");
+        }
+        this.threads = threads;
+    }
+
+    /**
+     * Returns the size of the transposition table of this player in
+     * megabytes, as last set.
+     *
+     * @return the size of the transposition table in megabytes
+     */
+    public int getHashSize() {
+        return hashSize;
+    }
+
+    /**
+     * Sets the size of the transposition table of this player in megabytes.
+     * The table is shared by the main search, the helper threads, the
+     * deterministic search, and the ponder search. It is replaced by a new,
+     * empty table of this size at the start of the next move, so a search
+     * in progress keeps its table, and a ponder search of the old table is
+     * not used.
+     *
+     * @param  megabytes  the size of the transposition table in megabytes
+     * @throws IllegalArgumentException if megabytes is less than 1
+     */
+    public void setHashSize(int megabytes) {
+        if (megabytes < 1) {
+            throw new IllegalArgumentException("Hash size must be at least 1 MB.");
+        }
+        hashSize = megabytes;
+    }
+
+    /**
+     * Returns true if this player searches with the deterministic parallel
+     * search, false otherwise.
+     *
+     * @return true if this player searches deterministically, false otherwise
+     */
+    public boolean isDeterministic() {
+        return deterministic;
+    }
+
+    /**
+     * Sets whether this player searches with the deterministic parallel
+     * search. A deterministic search uses every thread this player has, but
+     * always selects the same move with the same value as a deterministic
+     * Searcher searching serially, whatever the number of threads, so games
+     * can be replayed exactly. Such a searcher only writes to the
+     * transposition table and move ordering between passes over the root,
+     * so it searches more nodes than the usual search, and may select a
+     * different move.
+     *
+     * @param deterministic  whether to search deterministically
+     */
+    public void setDeterministic(boolean deterministic) {
+        this.deterministic = deterministic;
+    }
+
+    /**
+     * Returns true if this player searches on the opponent's time, false
+     * otherwise.
+     *
+     * @return true if this player ponders, false otherwise
+     */
+    public boolean isPondering() {
+        return pondering;
+    }
+
+    /**
+     * Sets whether this player searches on the opponent's time. When
+     * pondering, after each move this player predicts the opponent's reply
+     * from the transposition table and searches the board state after it in
+     * a background thread until its next move is needed. If the opponent
+     * plays the predicted reply, the search continues from the last
+     * iteration the ponder search completed. Otherwise the ponder search is
+     * abandoned, and only the results it stored in the shared transposition
+     * table are reused. The deterministic search does not ponder.
+     *
+     * @param pondering  whether to ponder
+     */
+    public void setPondering(boolean pondering) {
+        this.pondering = pondering;
+        if (!pondering) {
+            stopPondering();
+        }
+    }
+
+    /**
+     * Stops the ponder search, if there is one, and waits for its thread to
+     * finish. Called when the game is over so the search does not run on.
+     */
+    public void stopPondering() {
+        finishPondering();
+    }
+
+    /**
+     * Returns the time each move of this player may take, or null if this
+     * player searches to a fixed depth. With a clock, this is the time
+     * control of the last move searched.
+     *
+     * @return the time control of this player, or null
+     */
+    public TimeControl getTimeControl() {
+        return timeControl;
+    }
+
+    /**
+     * Sets the time each move of this player may take. With a time control,
+     * each move is searched one ply deeper at a time until the time control
+     * says to stop, and the iteration in progress at the maximum time is
+     * abandoned in favor of the last completed one. With null, each move is
+     * searched to the search depth this player was constructed with. The
+     * deterministic search always searches to the search depth, since how
+     * deep a search gets in a given time depends on timing. This replaces the
+     * clock of this player, if it has one.
+     *
+     * @param timeControl  the time each move may take, or null
+     */
+    public void setTimeControl(TimeControl timeControl) {
+        this.timeControl = timeControl;
+        clockMillis = -1;
+    }
+
+    /**
+     * Returns the time left on the clock of this player in milliseconds, or
+     * -1 if this player has no clock.
+     *
+     * @return the time left on the clock of this player, or -1
+     */
+    public long getClockMillis() {
+        return clockMillis;
+    }
+
+    /**
+     * Gives this player a clock with the given time left and increment. Each
+     * move then gets a time control that shares the time left on the clock,
+     * as given by TimeControl.clock, and once the move is selected the time
+     * it took is taken off the clock and the increment is added. Running out
+     * of time does not lose the game, so the time left never drops below 1
+     * millisecond before the increment is added.
+     *
+     * @param  remainingMillis  the time left on the clock in milliseconds
+     * @param  incrementMillis  the time added to the clock after each move
+     * @throws IllegalArgumentException if remainingMillis is less than 1 or
+     *                                  incrementMillis is negative
+     */
+    public void setClock(long remainingMillis, long incrementMillis) {
+        if (remainingMillis < 1 || incrementMillis < 0) {
+            throw new IllegalArgumentException("Invalid clock.");
+        }
+        clockMillis = remainingMillis;
+        this.incrementMillis = incrementMillis;
+    }
+
+    /**
+     * Returns the next move this player will make. If this player has a
+     * clock, the move is searched with a time control for the time left on
+     * it, and the clock is updated once the move is selected. The search of
+     * the move is recorded as a flight recorder event when enabled.
      *
      * @return the next move this player will make
      */
     public Move getMove() {
-        Move m = null;
-        if (searchDepth < LOW_PIECE_SEARCH_DEPTH && board.fewPiecesLeft()) {
-            searchDepth = LOW_PIECE_SEARCH_DEPTH;
-        }
-        for (int i = 1; i <= searchDepth; i++) {
-            m = negamax(color, i, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY);
-        }
-        return m;
-    }
-
-    /**
-     * Chooses the move a player will make using the negamax algorithm, a
-     * version of minimax applicable to zero-sum games.
-     *
-     * @param  color  the color of the player to make the move
-     * @param  depth  the depth to search to
-     * @param  alpha  the alpha value for alpha-beta pruning
-     * @param  beta   the beta value for alpha-beta pruning
-     * @return        the move a player will make at the current board state
-     */
-    private Move negamax(Piece.Color color, int depth, double alpha, double beta) {
-        String boardState = board.stateString();
-        Move start = board.getLastMove();
-        if (depth == 0) {
-            start.calculateHeuristicValue(heuristic, board, color);
-            return start;
-        }
-        SortedSet<Move> moves = memo.containsKey(boardState) ? memo.get(boardState)
-                                                             : new TreeSet<>(getPossibleMoves());
-        SortedSet<Move> result = new TreeSet<>();
-        for (Move m : moves) {
-            board.doMove(m);
-            double value;
-            if (board.inCheckmate(color)) {
-                value = Double.NEGATIVE_INFINITY;
-            } else if (board.inCheckmate(oppositeColor(color))) {
-                value = Double.POSITIVE_INFINITY;
-            } else if (board.inStalemate()) {
-                value = 0;
+        MoveSearchEvent event = new MoveSearchEvent();
+        event.begin();
+        long start = System.nanoTime();
+        if (clockMillis > 0) {
+            timeControl = TimeControl.clock(clockMillis, incrementMillis);
+        }
+        Move move;
+        try {
+            move = searchMove();
+        } finally {
+            activeSearcher = null;
+            activeDeterministic = null;
+            clearStopRequest();
+        }
+        if (clockMillis > 0) {
+            long elapsed = (System.nanoTime() - start) / 1000000;
+            clockMillis = Math.max(1, clockMillis - elapsed) + incrementMillis;
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.color = color.toString();
+            event.move = move.getStart().notation() + move.getEnd().notation();
+            event.threads = threads;
+            event.setStats(searchStats);
+            event.commit();
+        }
+        return move;
+    }
+
+    /**
+     * Makes the move being computed be returned as soon as possible. The
+     * search stops at the next node it reaches, and the move is selected
+     * from the last iteration it completed. Before the first iteration
+     * completes, that is the best move stored in the transposition table,
+     * or otherwise the first legal move. If no move is being computed, the
+     * next search stops before its first iteration completes. Pondering is
+     * not affected.
+     */
+    @Override
+    public void stop() {
+        super.stop();
+        Searcher main = activeSearcher;
+        if (main != null) {
+            main.stop();
+        }
+        YoungBrothersWait search = activeDeterministic;
+        if (search != null) {
+            search.stop();
+        }
+    }
+
+    /**
+     * Searches the current board state and returns the move this player
+     * selects.
+     *
+     * @return the next move this player will make
+     */
+    private Move searchMove() {
+        Searcher ponderHit = finishPondering();
+        if (hashSize != tableSize) {
+            replaceTable();
+            ponderHit = null;
+        }
+        if (deterministic) {
+            return selectMove(searchDeterministic(), false);
+        }
+        Searcher main = searcher;
+        int startDepth = 1;
+        if (ponderHit != null) {
+            main = ponderHit;
+            main.resume();
+            startDepth = ponderDepth + 1;
+        } else {
+            table.newSearch();
+            searcher.setMultiPv(Math.max(multiPv, skillLevel.getLines()));
+            searcher.start(color);
+        }
+        if (skillLevel.getMaxNodes() > 0) {
+            main.setNodeLimit(skillLevel.getMaxNodes());
+        }
+        lastSearcher = main;
+        main.setListener(searchListener);
+        activeSearcher = main;
+        if (isStopRequested()) {
+            main.stop();
+        }
+        List<Future<?>> helperTasks = startHelpers();
+        try {
+            if (timeControl == null) {
+                for (int i = startDepth; i <= limitDepth(searchDepth); i++) {
+                    if (main.searchRoot(color, i) == Scores.NONE) {
+                        break;
+                    }
+                }
             } else {
-                value = -negamax(oppositeColor(color),depth - 1, -beta, -alpha).getHeuristicValue();
+                searchTimed(main, startDepth);
             }
-            m.setHeuristicValue(value);
-            result.add(m);
-            board.undoLastMove();
-            alpha = Math.max(alpha, m.getHeuristicValue());
-            if (alpha >= beta) {
+        } finally {
+            stopHelpers(helperTasks);
+        }
+        return selectMove(main, skillLevel.getTemperature() > 0);
+    }
+
+    /**
+     * Replaces the transposition table with a new, empty table of the set
+     * size, and every searcher that shares it with a searcher of the new
+     * table. The helpers and the deterministic search are created again when
+     * next needed. Must not be called while a search is running.
+     */
+    private void replaceTable() {
+        tableSize = hashSize;
+        table = new TranspositionTable(tableSize);
+        searcher = new Searcher(board, heuristic, table, options);
+        lastSearcher = searcher;
+        if (helperPool != null) {
+            helperPool.shutdown();
+            helperPool = null;
+        }
+        helpers = new Searcher[0];
+        if (youngBrothersWait != null) {
+            youngBrothersWait.shutdown();
+            youngBrothersWait = null;
+        }
+    }
+
+    /**
+     * Searches the current board state with the deterministic parallel
+     * search to the search depth, limited by the skill level, and returns
+     * its searcher.
+     *
+     * @return the searcher of the root of the deterministic search
+     */
+    private Searcher searchDeterministic() {
+        if (youngBrothersWait == null || youngBrothersWait.getThreads() != threads) {
+            if (youngBrothersWait != null) {
+                // No move is being searched, so the old threads are idle
+                youngBrothersWait.shutdown();
+            }
+            youngBrothersWait = new YoungBrothersWait(board, heuristic, table, options, threads);
+        }
+        youngBrothersWait.resume();
+        Searcher main = youngBrothersWait.getSearcher();
+        table.newSearch();
+        main.setMultiPv(multiPv);
+        lastSearcher = main;
+        main.setListener(searchListener);
+        activeDeterministic = youngBrothersWait;
+        // A stop before the search was active is only seen in the request
+        if (isStopRequested()) {
+            youngBrothersWait.stop();
+        }
+        youngBrothersWait.search(color, limitDepth(searchDepth));
+        return main;
+    }
+
+    /**
+     * Selects the move to make from the root moves of the given searcher,
+     * keeping its statistics and lines.
+     *
+     * @param  main  the searcher that searched the current board state
+     * @param  pick  whether to pick one of the lines at random, as set by the
+     *               skill level, instead of the best move
+     * @return       the move this player will make
+     */
+    private Move selectMove(Searcher main, boolean pick) {
+        searchStats = main.getStats();
+        if (searchStats.getDepth() == 0) {
+            // Stopped before the first iteration completed, so no move has a value
+            lines = Collections.emptyList();
+            return board.toMove(main.rootMove(0));
+        }
+        lines = toLines(main);
+        if (pick) {
+            return board.toMove(main.rootMove(pickLine(main)));
+        }
+        return toMoves(main).get(0);
+    }
+
+    /**
+     * Returns the given depth limited by the greatest depth of the skill
+     * level of this player and by the greatest depth a search can run to.
+     *
+     * @param  depth  the depth to limit
+     * @return        the depth to search to
+     */
+    private int limitDepth(int depth) {
+        depth = Math.min(depth, Searcher.MAX_DEPTH);
+        return skillLevel.getMaxDepth() > 0 ? Math.min(depth, skillLevel.getMaxDepth()) : depth;
+    }
+
+    /**
+     * Picks one of the lines found by the given searcher at random, each
+     * with a chance proportional to e^(v / T), where v is its value and T is
+     * the temperature of the skill level. A forced mate is always picked.
+     *
+     * @param  main  the searcher that searched the current board state
+     * @return       the index of the root move of the picked line
+     */
+    private int pickLine(Searcher main) {
+        int count = Math.min(skillLevel.getLines(), main.rootCount());
+        int best = main.rootValue(0);
+        if (best >= Scores.MATE_BOUND) {
+            return 0;
+        }
+        double[] weights = new double[count];
+        double total = 0;
+        for (int i = 0; i < count; i++) {
+            // Relative to the best value, so that no weight is above 1
+            weights[i] = Math.exp((main.rootValue(i) - best)
+                                  / (double) skillLevel.getTemperature());
+            total += weights[i];
+        }
+        double pick = random.nextDouble() * total;
+        for (int i = 0; i < count - 1; i++) {
+            pick -= weights[i];
+            if (pick < 0) {
+                return i;
+            }
+        }
+        return count - 1;
+    }
+
+    /**
+     * Gets the next move this player will make then executes it. When
+     * pondering, then starts searching on the opponent's time.
+     */
+    @Override
+    public void doMove() {
+        super.doMove();
+        if (pondering && !deterministic) {
+            startPondering();
+        }
+    }
+
+    /**
+     * Starts the ponder search in a background thread if the opponent's
+     * reply can be predicted: the best move stored in the transposition
+     * table for the current board state. The ponder search makes the reply
+     * on its own copy of the board and searches with iterative deepening
+     * until stopped, or to the search depth without a time control. Nothing
+     * is started if there is no prediction or the reply would leave this
+     * player without a legal move.
+     */
+    private void startPondering() {
+        Board ponderBoard = new Board(board);
+        Position position = ponderBoard.getPosition();
+        int predicted = TranspositionTable.move(table.probe(ponderBoard.hash()));
+        int[] moves = new int[MoveGenerator.MAX_MOVES];
+        int count = MoveGenerator.generate(position, oppositeColor(color).getIndex(), true, moves);
+        int reply = Moves.NONE;
+        for (int i = 0; i < count && predicted != 0; i++) {
+            if (Moves.squares(moves[i]) == predicted) {
+                reply = moves[i];
                 break;
             }
         }
-        memo.put(boardState, result);
-        return selectMove(result);
+        if (reply == Moves.NONE) {
+            return;
+        }
+        position.makeMove(reply);
+        if (MoveGenerator.countLegalMoves(position, color.getIndex()) == 0) {
+            return;
+        }
+        table.newSearch();
+        Searcher ponder = new Searcher(ponderBoard, heuristic, table, options);
+        ponder.setMultiPv(Math.max(multiPv, skillLevel.getLines()));
+        ponder.start(color);
+        ponderDepth = 0;
+        int maxDepth = limitDepth(timeControl == null ? searchDepth : Searcher.MAX_DEPTH);
+        ponderThread = new Thread(() -> {
+            for (int depth = 1; depth <= maxDepth; depth++) {
+                if (ponder.searchRoot(color, depth) == Scores.NONE) {
+                    return;
+                }
+                ponderDepth = depth;
+            }
+        }, "ponder");
+        ponderThread.setDaemon(true);
+        ponderThread.start();
+        ponderSearcher = ponder;
+    }
+
+    /**
+     * Stops the ponder search, if there is one, and waits for its thread to
+     * finish. Returns its searcher if the opponent played the predicted
+     * reply, so that the current board state is the one it searched, and
+     * null otherwise or if interrupted while waiting.
+     *
+     * @return the ponder searcher on a ponder hit, or null
+     */
+    private Searcher finishPondering() {
+        Searcher ponder = ponderSearcher;
+        if (ponder == null) {
+            return null;
+        }
+        ponder.stop();
+        Thread thread = ponderThread;
+        ponderSearcher = null;
+        ponderThread = null;
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            // The stopped search stores nothing more in the shared table, but
+            // its own results cannot be used before it finishes
+            Thread.currentThread().interrupt();
+            return null;
+        }
+        return ponder.getBoard().hash() == board.hash() ? ponder : null;
+    }
+
+    /**
+     * Searches with the given searcher with iterative deepening, starting at
+     * the given depth, until the time control or the skill level says to stop.
+     * The time control allows more time while the best move keeps changing
+     * between iterations, and the iteration in
+     * progress at the maximum time is stopped. If even the first iteration
+     * is stopped, the root moves keep the order they were generated in.
+     *
+     * @param main        the searcher to search with
+     * @param startDepth  the depth of the first iteration to search
+     */
+    private void searchTimed(Searcher main, int startDepth) {
+        long start = System.nanoTime();
+        main.setDeadline(start + timeControl.getMaximumMillis() * 1000000);
+        double instability = 0;
+        int bestMove = startDepth > 1 ? main.rootMove(0) : Moves.NONE;
+        for (int depth = startDepth; depth <= limitDepth(Searcher.MAX_DEPTH); depth++) {
+            if (main.searchRoot(color, depth) == Scores.NONE || main.rootCount() == 1) {
+                return;
+            }
+            // Recent changes of the best move count more than older ones
+            instability /= 2;
+            if (bestMove != Moves.NONE && main.rootMove(0) != bestMove) {
+                instability++;
+            }
+            bestMove = main.rootMove(0);
+            long elapsed = (System.nanoTime() - start) / 1000000;
+            if (!timeControl.startIteration(elapsed, instability)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Returns the given root moves as moves on the board this player plays
+     * on, each with its value as its heuristic value. Moves with the same
+     * value stay in the order of the root moves, so none of them is lost.
+     *
+     * @param  rootMoves  the root moves of a search
+     * @return            the root moves, the highest heuristic value first
+     */
+    private List<Move> toMoves(RootMoves rootMoves) {
+        List<Move> result = new ArrayList<>(rootMoves.rootCount());
+        for (int i = 0; i < rootMoves.rootCount(); i++) {
+            Move m = board.toMove(rootMoves.rootMove(i));
+            m.setHeuristicValue(rootMoves.rootValue(i));
+            result.add(m);
+        }
+        // List.sort is stable, unlike a set ordered by value, which drops ties
+        result.sort(Comparator.comparingInt(Move::getHeuristicValue).reversed());
+        return result;
+    }
+
+    /**
+     * Returns the lines found by the given searcher as lines of moves on the
+     * board this player plays on.
+     *
+     * @param  main  the searcher that searched the current board state
+     * @return       an unmodifiable list of the lines, the best first
+     */
+    private List<Line> toLines(Searcher main) {
+        List<Line> result = new ArrayList<>();
+        Board copy = new Board(board);
+        for (int i = 0; i < Math.min(main.getMultiPv(), main.rootCount()); i++) {
+            List<Move> moves = new ArrayList<>();
+            // Each move is built in the position it is made in, which is all its notation needs
+            for (int packedMove : main.principalVariation(i)) {
+                Move move = copy.toMove(packedMove);
+                moves.add(move);
+                copy.doMove(move);
+            }
+            for (int j = 0; j < moves.size(); j++) {
+                copy.undoLastMove();
+            }
+            result.add(new Line(moves, main.rootValue(i)));
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+    /**
+     * Starts a helper search for each thread after the first, each searching
+     * its own copy of the board with iterative deepening until stopped. Half
+     * of the helpers start one ply deeper than the others so that the threads
+     * spread out over different depths. The helper searchers and their
+     * threads are kept across moves, and only the position of each copy is
+     * brought up to date, since a searcher never looks at the squares.
+     *
+     * @return the tasks running the helper searches
+     */
+    private List<Future<?>> startHelpers() {
+        if (helpers.length != threads - 1) {
+            if (helperPool != null) {
+                helperPool.shutdown();
+                helperPool = null;
+            }
+            helpers = new Searcher[threads - 1];
+            for (int i = 0; i < helpers.length; i++) {
+                helpers[i] = new Searcher(new Board(board), heuristic, table, options);
+            }
+            if (helpers.length > 0) {
+                helperPool = new ThreadPoolExecutor(helpers.length, helpers.length, 60,
+                                                    TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+                                                    MinimaxPlayer::newHelperThread);
+                helperPool.allowCoreThreadTimeOut(true);
+            }
+        }
+        List<Future<?>> tasks = new ArrayList<>();
+        for (int i = 0; i < helpers.length; i++) {
+            Searcher helper = helpers[i];
+            helper.getBoard().getPosition().set(board.getPosition());
+            helper.start(color);
+            int startDepth = 1 + i % 2;
+            tasks.add(helperPool.submit(() -> {
+                for (int depth = startDepth; depth <= Searcher.MAX_DEPTH && !helper.isStopped();
+                     depth++) {
+                    helper.searchRoot(color, depth);
+                }
+            }));
+        }
+        return tasks;
+    }
+
+    /**
+     * Stops the helper searches and waits for the given tasks running them
+     * to finish, so that no helper stores anything more in the transposition
+     * table once the move has been selected. A stopped helper returns at the
+     * next node it reaches, so the wait is short and is not cut short by an
+     * interrupt, which is kept for the caller instead.
+     *
+     * @param  tasks  the tasks running the helper searches
+     * @throws IllegalStateException if a helper search failed
+     */
+    private void stopHelpers(List<Future<?>> tasks) {
+        for (Searcher helper : helpers) {
+            helper.stop();
+        }
+        boolean interrupted = false;
+        Throwable failure = null;
+        for (Future<?> task : tasks) {
+            while (true) {
+                try {
+                    task.get();
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                } catch (ExecutionException e) {
+                    failure = e.getCause();
+                    break;
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        if (failure != null) {
+            throw new IllegalStateException("Helper search failed.", failure);
+        }
     }
 
     /**
-     * Selects and returns the move that the player will make. Selects the move
-     * with the highest heuristic value.
+     * Returns a new daemon thread for a helper search to run on.
      *
-     * @param  result  the sorted set to select the move from
-     * @return         the move that the player will make
+     * @param  runnable  the task of the thread
+     * @return           the new thread
      */
-    protected Move selectMove(SortedSet<Move> result) {
-        return result.first();
+    private static Thread newHelperThread(Runnable runnable) {
+        Thread thread = new Thread(runnable, "search-helper");
+        thread.setDaemon(true);
+        return thread;
     }
 
     /**
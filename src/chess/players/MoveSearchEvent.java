@@ -0,0 +1,81 @@
+package chess.players;
+
+import chess.search.*;
+
+import jdk.jfr.*;
+
+/**
+ * A JDK Flight Recorder event for the search of one move by a minimax
+ * player, from the call of getMove until it returns. The counts are those of
+ * the main search, as reported by getSearchStats, and are 0 for the
+ * deterministic search.
+ */
+@Name("chess.MoveSearch")
+@Label("Move Search")
+@Category({"Chess", "Search"})
+@Description("The search of one move by a minimax player")
+@StackTrace(false)
+final class MoveSearchEvent extends Event {
+    /**
+     * The color of the player and the move it selected.
+     */
+    @Label("Color")
+    String color;
+    @Label("Move")
+    String move;
+
+    /**
+     * The number of threads the player searched with.
+     */
+    @Label("Threads")
+    int threads;
+
+    /**
+     * The depth of the last completed iteration.
+     */
+    @Label("Depth")
+    int depth;
+
+    /**
+     * The value of the best move.
+     */
+    @Label("Score")
+    int score;
+
+    /**
+     * The number of nodes searched, including quiescence nodes.
+     */
+    @Label("Nodes")
+    long nodes;
+
+    /**
+     * The number of transposition table probes and hits.
+     */
+    @Label("Table Probes")
+    long tableProbes;
+    @Label("Table Hits")
+    long tableHits;
+
+    /**
+     * The number of beta cutoffs.
+     */
+    @Label("Cutoffs")
+    long cutoffs;
+
+    /**
+     * Sets the counts of this event to the given statistics of the search.
+     *
+     * @param stats  the statistics of the search, or null if there are none
+     */
+    void setStats(SearchStats stats) {
+        if (stats == null) {
+            return;
+        }
+        depth = stats.getDepth();
+        score = stats.getScore();
+        nodes = stats.getNodes();
+        tableProbes = stats.getTableProbes();
+        tableHits = stats.getTableHits();
+        cutoffs = stats.getCutoffs();
+    }
+}
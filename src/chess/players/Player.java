@@ -4,6 +4,7 @@ import chess.*;
 import chess.pieces.*;
 
 import java.util.*;
+import java.util.concurrent.*;
 
 /**
  * A player that plays chess.
@@ -19,6 +20,11 @@ public abstract class Player {
      */
     protected final Piece.Color color;
 
+    /**
+     * Whether stop has been called since the last move was returned.
+     */
+    private volatile boolean stopRequested;
+
     /**
      * Constructs a new player with the given board and color.
      *
@@ -37,6 +43,71 @@ public abstract class Player {
      */
     public abstract Move getMove();
 
+    /**
+     * Starts computing the next move this player will make on a new daemon
+     * thread and returns a future of it, as getMoveAsync with an executor
+     * does.
+     *
+     * @return a future of the next move this player will make
+     */
+    public CompletableFuture<Move> getMoveAsync() {
+        return getMoveAsync(runnable -> {
+            Thread thread = new Thread(runnable, "move-" + color);
+            thread.setDaemon(true);
+            thread.start();
+        });
+    }
+
+    /**
+     * Starts computing the next move this player will make with the given
+     * executor and returns a future of it. Cancelling the future before the
+     * computation starts keeps it from starting, and cancelling it while the
+     * computation runs stops it as stop does, so an abandoned search does
+     * not keep using a thread. The board must not change until the future
+     * is done, and this player computes one move at a time.
+     *
+     * @param  executor  the executor to compute the move with
+     * @return           a future of the next move this player will make
+     */
+    public CompletableFuture<Move> getMoveAsync(Executor executor) {
+        MoveTask task = new MoveTask();
+        task.future.whenComplete((move, e) -> {
+            if (task.future.isCancelled()) {
+                task.cancel();
+            }
+        });
+        executor.execute(task);
+        return task.future;
+    }
+
+    /**
+     * Makes the move being computed be returned as soon as possible: the
+     * best move found so far. If no move is being computed, the next one is
+     * returned as soon as possible instead. Players that do not search, like
+     * human players, ignore this. Safe to call from any thread.
+     */
+    public void stop() {
+        stopRequested = true;
+    }
+
+    /**
+     * Returns true if stop has been called since the last move was returned,
+     * false otherwise.
+     *
+     * @return true if the move being computed should be returned at once
+     */
+    protected boolean isStopRequested() {
+        return stopRequested;
+    }
+
+    /**
+     * Clears the request to stop, once the move it applied to has been
+     * returned.
+     */
+    protected void clearStopRequest() {
+        stopRequested = false;
+    }
+
     /**
      * Returns a set containing all of this player's pieces that have not been captured.
      *
@@ -109,4 +180,61 @@ public abstract class Player {
         System.out.println(Board.ANSI_RESET);
         board.doMove(move, this instanceof HumanPlayer);
     }
+
+    /**
+     * The computation of one move for getMoveAsync, which completes its
+     * future with the move.
+     */
+    private final class MoveTask implements Runnable {
+        /**
+         * The future of the move.
+         */
+        private final CompletableFuture<Move> future = new CompletableFuture<>();
+
+        /**
+         * Whether the move is being computed. Guarded by this task, so that a
+         * cancellation stops the player only while this task computes.
+         */
+        private boolean running;
+
+        /**
+         * Computes the move and completes the future with it, unless the
+         * future was cancelled first. Anything thrown while computing the
+         * move, errors included, completes the future exceptionally instead,
+         * as CompletableFuture.supplyAsync does, so that no caller waits on
+         * it forever.
+         */
+        @Override
+        public void run() {
+            synchronized (this) {
+                if (future.isDone()) {
+                    return;
+                }
+                running = true;
+            }
+            Move move;
+            try {
+                move = getMove();
+            } catch (Throwable e) {
+                future.completeExceptionally(e);
+                return;
+            } finally {
+                synchronized (this) {
+                    running = false;
+                    clearStopRequest();
+                }
+            }
+            future.complete(move);
+        }
+
+        /**
+         * Stops the computation of the move if it is running, after the
+         * future was cancelled.
+         */
+        private synchronized void cancel() {
+            if (running) {
+                stop();
+            }
+        }
+    }
 }
@@ -0,0 +1,116 @@
+package chess.players;
+
+/**
+ * How strongly a minimax player plays. A weaker player searches less, by
+ * limiting the depth or the number of nodes of its search, and does not
+ * always select the best move. Instead it searches several lines and picks
+ * one at random, with each line's chance proportional to e^(v / T), where v
+ * is the line's value in centipawns and T is the temperature. At a
+ * temperature of 0 the best move is always selected, and the higher the
+ * temperature, the closer the chances of all lines get. A forced mate is
+ * never passed up.
+ */
+public final class SkillLevel {
+    /**
+     * A weak player: searches one ply and often picks a move up to a couple
+     * of pawns worse than the best of six.
+     */
+    public static final SkillLevel EASY = new SkillLevel(1, 5000, 6, 150);
+
+    /**
+     * A player of medium strength: searches two plies and sometimes picks a
+     * move slightly worse than the best of four.
+     */
+    public static final SkillLevel MEDIUM = new SkillLevel(2, 50000, 4, 40);
+
+    /**
+     * The full strength of a player's search: no limits, and always the best
+     * move.
+     */
+    public static final SkillLevel HARD = new SkillLevel(0, 0, 1, 0);
+
+    /**
+     * The greatest depth to search to, or 0 for no limit beyond the player's
+     * own.
+     */
+    private final int maxDepth;
+
+    /**
+     * The number of nodes after which a search stops, or 0 for no limit.
+     */
+    private final long maxNodes;
+
+    /**
+     * The number of lines to search and pick from.
+     */
+    private final int lines;
+
+    /**
+     * The temperature of the random choice between lines, in centipawns.
+     */
+    private final int temperature;
+
+    /**
+     * Constructs a new skill level with the given limits and choice of lines.
+     *
+     * @param  maxDepth     the greatest depth to search to, or 0 for no limit
+     * @param  maxNodes     the number of nodes after which a search stops, or
+     *                      0 for no limit
+     * @param  lines        the number of lines to search and pick from
+     * @param  temperature  the temperature of the random choice between lines,
+     *                      in centipawns, or 0 to always pick the best
+     * @throws IllegalArgumentException if maxDepth, maxNodes, or temperature
+     *                                  is negative, or lines is less than 1
+     */
+    public SkillLevel(int maxDepth, long maxNodes, int lines, int temperature) {
+        if (maxDepth < 0 || maxNodes < 0 || temperature < 0) {
+            throw new IllegalArgumentException("Skill limits must not be negative.");
+        }
+        if (lines < 1) {
+            throw new IllegalArgumentException("Number of lines must be at least 1.");
+        }
+        this.maxDepth = maxDepth;
+        this.maxNodes = maxNodes;
+        this.lines = lines;
+        this.temperature = temperature;
+    }
+
+    /**
+     * Returns the greatest depth to search to, or 0 for no limit beyond the
+     * player's own.
+     *
+     * @return the greatest depth to search to, or 0
+     */
+    public int getMaxDepth() {
+        return maxDepth;
+    }
+
+    /**
+     * Returns the number of nodes after which a search stops, or 0 for no
+     * limit. The first iteration of a search always completes.
+     *
+     * @return the node limit of a search, or 0
+     */
+    public long getMaxNodes() {
+        return maxNodes;
+    }
+
+    /**
+     * Returns the number of lines to search and pick from.
+     *
+     * @return the number of lines to search and pick from
+     */
+    public int getLines() {
+        return lines;
+    }
+
+    /**
+     * Returns the temperature of the random choice between lines, in
+     * centipawns, or 0 if the best line is always picked.
+     *
+     * @return the temperature of the random choice between lines
+     */
+    public int getTemperature() {
+        return temperature;
+    }
+}
@@ -4,17 +4,11 @@ import chess.*;
 import chess.pieces.*;
 import chess.heuristics.*;
 
-import java.util.*;
-
 /**
- * A minimax player that doesn't always pick the best move.
+ * A minimax player that doesn't always pick the best move, playing at the
+ * medium skill level.
  */
 public final class SuboptimalMinimaxPlayer extends MinimaxPlayer {
-    /**
-     * The source of this player's randomness
-     */
-    private final Random random;
-
     /**
      * Constructs a new suboptimal minimax player with the given board, color, and heuristic.
      *
@@ -38,30 +32,7 @@ public final class SuboptimalMinimaxPlayer extends MinimaxPlayer {
     public SuboptimalMinimaxPlayer(Board board, Piece.Color color, Heuristic heuristic,
                                    int searchDepth) {
         super(board, color, heuristic, searchDepth);
-        random = new Random();
-    }
-
-    /**
-     * Selects and returns the move that the player will make. Randomly selects
-     * the move to make, with probability of selecting the move based on its
-     * rank compared to other moves.
-     *
-     * @param  result  the sorted set to select the move from
-     * @return         the move that the player will make
-     */
-    @Override
-    protected Move selectMove(SortedSet<Move> result) {
-        if (result.first().getHeuristicValue() == Double.POSITIVE_INFINITY) {
-            return result.first();
-        }
-        SortedSet<Move> taken = new TreeSet<>();
-        for (int i = 0; i < result.size() / 2 && random.nextBoolean(); i++) {
-            taken.add(result.first());
-            result.remove(result.first());
-        }
-        Move selected = result.first();
-        result.addAll(taken);
-        return selected;
+        setSkillLevel(SkillLevel.MEDIUM);
     }
 
     /**
@@ -4,10 +4,9 @@ import chess.*;
 import chess.pieces.*;
 import chess.heuristics.*;
 
-import java.util.*;
-
 /**
- * A minimax player that selects the worst move for itself.
+ * A minimax player that plays at the easy skill level, searching one ply and
+ * often picking a move well worse than the best.
  */
 public final class WorstMinimaxPlayer extends MinimaxPlayer {
     /**
@@ -32,19 +31,7 @@ public final class WorstMinimaxPlayer extends MinimaxPlayer {
      */
     public WorstMinimaxPlayer(Board board, Piece.Color color, Heuristic heuristic, int searchDepth) {
         super(board, color, heuristic, searchDepth);
-    }
-
-    /**
-     * Selects and returns the move that the player will make. Selects the move
-     * with the highest heuristic value for the opposing player and the lowest
-     * heuristic value for this player.
-     *
-     * @param  result  the sorted set to select the move from
-     * @return         the move that the player will make
-     */
-    @Override
-    protected Move selectMove(SortedSet<Move> result) {
-        return result.last();
+        setSkillLevel(SkillLevel.EASY);
     }
 
     /**
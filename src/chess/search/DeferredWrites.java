@@ -0,0 +1,166 @@
+package chess.search;
+
+import java.util.*;
+
+/**
+ * The transposition table stores and move ordering cutoffs of part of a
+ * deterministic search, kept in the order they were made so that they can
+ * be made later, all at once. While a deterministic search runs, the table
+ * and the move ordering only change between passes over the root, so what a
+ * node reads from them does not depend on which other nodes have been
+ * searched yet, by this thread or another.
+ */
+final class DeferredWrites {
+    /**
+     * The kinds of writes, kept in the lowest bit of the details of a write.
+     */
+    private static final int STORE = 0;
+    private static final int CUTOFF = 1;
+
+    /**
+     * The number of writes there is room for at first.
+     */
+    private static final int INITIAL_CAPACITY = 256;
+
+    /**
+     * The hash of the position of each store, or 0 for a cutoff.
+     */
+    private long[] hashes;
+
+    /**
+     * The packed move of each write.
+     */
+    private int[] moves;
+
+    /**
+     * The score of each store, relative to its position as given by
+     * Scores.toTable, or the ply of each cutoff.
+     */
+    private int[] values;
+
+    /**
+     * The kind of each write in bit 0, the bound type of a store or the
+     * bitboard index of the color of a cutoff from bit 1, and the depth from
+     * bit 8.
+     */
+    private int[] details;
+
+    /**
+     * The number of writes kept.
+     */
+    private int size;
+
+    /**
+     * Constructs a new list of writes with no writes.
+     */
+    DeferredWrites() {
+        hashes = new long[INITIAL_CAPACITY];
+        moves = new int[INITIAL_CAPACITY];
+        values = new int[INITIAL_CAPACITY];
+        details = new int[INITIAL_CAPACITY];
+    }
+
+    /**
+     * Keeps a store of a search result in the transposition table, with the
+     * same parameters as TranspositionTable.store.
+     *
+     * @param hash   the Zobrist hash of the searched position
+     * @param move   the best packed move found, or Moves.NONE
+     * @param score  the score found, relative to the root
+     * @param ply    the ply the position was searched at
+     * @param depth  the depth searched, at least 1
+     * @param bound  the bound type of the score
+     */
+    void store(long hash, int move, int score, int ply, int depth, int bound) {
+        add(hash, move, Scores.toTable(score, ply), depth << 8 | bound << 1 | STORE);
+    }
+
+    /**
+     * Keeps a cutoff for the move ordering, with the same parameters as
+     * MoveOrdering.recordCutoff.
+     *
+     * @param ply    the ply of the cutoff
+     * @param color  the bitboard index of the color of the player who moved
+     * @param move   the packed move that caused the cutoff
+     * @param depth  the depth left at the node of the cutoff
+     */
+    void recordCutoff(int ply, int color, int move, int depth) {
+        add(0, move, ply, depth << 8 | color << 1 | CUTOFF);
+    }
+
+    /**
+     * Keeps every write of the given list after the writes of this list, in
+     * their order.
+     *
+     * @param other  the list of writes to add
+     */
+    void addAll(DeferredWrites other) {
+        ensureCapacity(size + other.size);
+        System.arraycopy(other.hashes, 0, hashes, size, other.size);
+        System.arraycopy(other.moves, 0, moves, size, other.size);
+        System.arraycopy(other.values, 0, values, size, other.size);
+        System.arraycopy(other.details, 0, details, size, other.size);
+        size += other.size;
+    }
+
+    /**
+     * Makes every write kept, in the order they were kept, and then clears
+     * this list.
+     *
+     * @param table     the transposition table to store results in
+     * @param ordering  the move ordering to record cutoffs in
+     */
+    void apply(TranspositionTable table, MoveOrdering ordering) {
+        for (int i = 0; i < size; i++) {
+            int depth = details[i] >>> 8;
+            int kind = details[i] & 1;
+            if (kind == STORE) {
+                // The score is already relative to its position, as at ply 0
+                table.store(hashes[i], moves[i], values[i], 0, depth, details[i] >>> 1 & 3);
+            } else {
+                ordering.recordCutoff(values[i], details[i] >>> 1 & 1, moves[i], depth);
+            }
+        }
+        clear();
+    }
+
+    /**
+     * Removes every write kept without making it.
+     */
+    void clear() {
+        size = 0;
+    }
+
+    /**
+     * Adds a write to the end of this list.
+     *
+     * @param hash     the hash of the position of a store, or 0
+     * @param move     the packed move
+     * @param value    the score of a store or the ply of a cutoff
+     * @param details  the kind, bound type or color, and depth, packed
+     */
+    private void add(long hash, int move, int value, int details) {
+        ensureCapacity(size + 1);
+        hashes[size] = hash;
+        moves[size] = move;
+        values[size] = value;
+        this.details[size] = details;
+        size++;
+    }
+
+    /**
+     * Makes room for at least the given number of writes.
+     *
+     * @param capacity  the number of writes to make room for
+     */
+    private void ensureCapacity(int capacity) {
+        if (capacity <= hashes.length) {
+            return;
+        }
+        int length = Math.max(capacity, hashes.length * 2);
+        hashes = Arrays.copyOf(hashes, length);
+        moves = Arrays.copyOf(moves, length);
+        values = Arrays.copyOf(values, length);
+        details = Arrays.copyOf(details, length);
+    }
+}
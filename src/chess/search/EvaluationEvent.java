@@ -0,0 +1,60 @@
+package chess.search;
+
+import chess.*;
+import chess.pieces.*;
+import chess.heuristics.*;
+
+import jdk.jfr.*;
+
+/**
+ * A JDK Flight Recorder event for one heuristic evaluation. Evaluations are
+ * far too frequent to record each one, so only one in every SAMPLE_MASK + 1
+ * is timed and recorded, and the search iteration events count them all.
+ */
+@Name("chess.Evaluation")
+@Label("Evaluation")
+@Category({"Chess", "Search"})
+@Description("A sampled heuristic evaluation of a board state")
+@StackTrace(false)
+final class EvaluationEvent extends Event {
+    /**
+     * The number of evaluations between samples, one less than a power of
+     * two.
+     */
+    static final int SAMPLE_MASK = 1023;
+
+    /**
+     * The number of moves made since the start of the search.
+     */
+    @Label("Ply")
+    int ply;
+
+    /**
+     * The heuristic value found.
+     */
+    @Label("Value")
+    int value;
+
+    /**
+     * Returns the heuristic value of the current state of the given board for
+     * the given color, and records an event for the evaluation.
+     *
+     * @param  heuristic  the heuristic to evaluate the board state with
+     * @param  board      the board to evaluate
+     * @param  color      the color to evaluate the board state for
+     * @param  ply        the number of moves made since the start of the search
+     * @return            the heuristic value of the board state
+     */
+    static int evaluate(Heuristic heuristic, Board board, Piece.Color color, int ply) {
+        EvaluationEvent event = new EvaluationEvent();
+        event.begin();
+        int value = heuristic.calculateValue(board.getPosition(), color);
+        event.end();
+        if (event.shouldCommit()) {
+            event.ply = ply;
+            event.value = value;
+            event.commit();
+        }
+        return value;
+    }
+}
@@ -0,0 +1,82 @@
+package chess.search;
+
+import jdk.jfr.*;
+
+/**
+ * A JDK Flight Recorder event for one iteration of a search, from its start
+ * until it completes or is stopped. The counts are those of the iteration
+ * alone, not of the search so far.
+ */
+@Name("chess.SearchIteration")
+@Label("Search Iteration")
+@Category({"Chess", "Search"})
+@Description("One iteration of iterative deepening")
+@StackTrace(false)
+final class IterationEvent extends Event {
+    /**
+     * The depth searched to.
+     */
+    @Label("Depth")
+    int depth;
+
+    /**
+     * Whether the iteration completed instead of being stopped.
+     */
+    @Label("Completed")
+    boolean completed;
+
+    /**
+     * The value of the root found by the iteration, or Scores.NONE if it was
+     * stopped.
+     */
+    @Label("Score")
+    int score;
+
+    /**
+     * The number of nodes searched, including quiescence nodes.
+     */
+    @Label("Nodes")
+    long nodes;
+
+    /**
+     * The number of transposition table probes and hits.
+     */
+    @Label("Table Probes")
+    long tableProbes;
+    @Label("Table Hits")
+    long tableHits;
+
+    /**
+     * The number of beta cutoffs, and the number made by the first move.
+     */
+    @Label("Cutoffs")
+    long cutoffs;
+    @Label("First Move Cutoffs")
+    long firstMoveCutoffs;
+
+    /**
+     * The number of heuristic evaluations and move generations.
+     */
+    @Label("Evaluations")
+    long evaluations;
+    @Label("Move Generations")
+    long moveGenerations;
+
+    /**
+     * Sets the counts of this event to the work done between the given
+     * statistics of a search, taken at the start and at the end of the
+     * iteration.
+     *
+     * @param before  the statistics of the search before the iteration
+     * @param after   the statistics of the search after the iteration
+     */
+    void setCounts(SearchStats before, SearchStats after) {
+        nodes = after.getNodes() - before.getNodes();
+        tableProbes = after.getTableProbes() - before.getTableProbes();
+        tableHits = after.getTableHits() - before.getTableHits();
+        cutoffs = after.getCutoffs() - before.getCutoffs();
+        firstMoveCutoffs = after.getFirstMoveCutoffs() - before.getFirstMoveCutoffs();
+        evaluations = after.getEvaluations() - before.getEvaluations();
+        moveGenerations = after.getMoveGenerations() - before.getMoveGenerations();
+    }
+}
@@ -0,0 +1,98 @@
+package chess.search;
+
+import chess.bitboard.*;
+
+import jdk.jfr.*;
+
+/**
+ * A JDK Flight Recorder event for one move generation: the legal moves of a
+ * node, the captures of a quiescence node, or the check whether the game is
+ * over after a move, which counts the legal replies. Move generations are
+ * far too frequent to record each one, so only one in every SAMPLE_MASK + 1
+ * is timed and recorded, and the search iteration events count them all.
+ */
+@Name("chess.MoveGeneration")
+@Label("Move Generation")
+@Category({"Chess", "Search"})
+@Description("A sampled generation of moves or check for the end of the game")
+@StackTrace(false)
+final class MoveGenerationEvent extends Event {
+    /**
+     * The number of move generations between samples, one less than a power
+     * of two.
+     */
+    static final int SAMPLE_MASK = 1023;
+
+    /**
+     * What was generated: "moves", "captures", or "game over".
+     */
+    @Label("Kind")
+    String kind;
+
+    /**
+     * The number of moves made since the start of the search.
+     */
+    @Label("Ply")
+    int ply;
+
+    /**
+     * The number of moves generated, or -1 for a check whether the game is
+     * over.
+     */
+    @Label("Moves")
+    int moves;
+
+    /**
+     * Generates the legal moves, or only the captures and promotions, of the
+     * player of the given color into the buffer of the given ply, returns
+     * their number, and records an event for the generation.
+     *
+     * @param  moveList  the move list to generate moves into
+     * @param  position  the position to generate moves in
+     * @param  color     the bitboard index of the color of the player to move
+     * @param  ply       the ply whose buffer to fill
+     * @param  captures  whether to generate only captures and promotions
+     * @return           the number of moves generated
+     */
+    static int generate(MoveList moveList, Position position, int color, int ply,
+                        boolean captures) {
+        MoveGenerationEvent event = new MoveGenerationEvent();
+        event.begin();
+        int count = captures ? moveList.generateCaptures(position, color, ply)
+                             : moveList.generate(position, color, ply);
+        event.end();
+        if (event.shouldCommit()) {
+            event.kind = captures ? "captures" : "moves";
+            event.ply = ply;
+            event.moves = count;
+            event.commit();
+        }
+        return count;
+    }
+
+    /**
+     * Returns the value of the given position for the player who just moved
+     * if the game is over, or Scores.NONE if it is not, as
+     * Searcher.terminalValue does, and records an event for the check.
+     *
+     * @param  position  the position after the move
+     * @param  opponent  the bitboard index of the color of the player to move next
+     * @param  ply       the number of moves made since the start of the search,
+     *                   including the move
+     * @return           the value of the position for the player who just moved,
+     *                   or Scores.NONE if the game is not over
+     */
+    static int terminalValue(Position position, int opponent, int ply) {
+        MoveGenerationEvent event = new MoveGenerationEvent();
+        event.begin();
+        int value = Searcher.terminalValue(position, opponent, ply);
+        event.end();
+        if (event.shouldCommit()) {
+            event.kind = "game over";
+            event.ply = ply;
+            event.moves = -1;
+            event.commit();
+        }
+        return value;
+    }
+}
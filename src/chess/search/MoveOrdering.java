@@ -0,0 +1,185 @@
+package chess.search;
+
+import chess.bitboard.*;
+
+/**
+ * Scores the moves of a search node so that the moves most likely to cause
+ * a cutoff are searched first. In order, these are the best move stored in
+ * the transposition table, captures and promotions by most valuable victim
+ * and then least valuable attacker (MVV-LVA), the two killer moves of the
+ * ply, and the remaining quiet moves by their history score.
+ *
+ * A killer move is a quiet move that recently caused a cutoff at the same
+ * ply, likely in a sibling position where it works for the same reason. The
+ * history score of a quiet move, indexed by its color and its start and end
+ * squares, grows each time the move causes a cutoff anywhere in the search,
+ * by more the deeper the cutoff.
+ */
+public final class MoveOrdering {
+    /**
+     * The score of the best move stored in the transposition table.
+     */
+    private static final int HASH_MOVE_SCORE = 1 << 30;
+
+    /**
+     * The score every capture and promotion scores above.
+     */
+    private static final int CAPTURE_SCORE = 1 << 29;
+
+    /**
+     * The score of the first killer move of a ply. The second scores one
+     * less.
+     */
+    private static final int KILLER_SCORE = 1 << 28;
+
+    /**
+     * The history score at which every history score of a color is halved,
+     * so quiet moves always score below the killer moves and old cutoffs
+     * count for less over time.
+     */
+    private static final int MAX_HISTORY = 1 << 20;
+
+    /**
+     * The two killer moves of each ply, the most recent first.
+     */
+    private final int[][] killers;
+
+    /**
+     * The history score of each quiet move, indexed by color and then by its
+     * start and end squares, as given by Moves.squares.
+     */
+    private final int[][] history;
+
+    /**
+     * Constructs a new move ordering with no killer moves or history.
+     */
+    public MoveOrdering() {
+        killers = new int[MoveList.MAX_PLY][2];
+        history = new int[2][Bitboards.NUM_SQUARES * Bitboards.NUM_SQUARES];
+    }
+
+    /**
+     * Constructs a new move ordering that reads and writes the killer moves
+     * and history of the given move ordering. Used by the workers of a
+     * deterministic parallel search, which only read them during a search.
+     *
+     * @param shared  the move ordering whose killer moves and history to use
+     */
+    MoveOrdering(MoveOrdering shared) {
+        killers = shared.killers;
+        history = shared.history;
+    }
+
+    /**
+     * Prepares for a new search. Clears the killer moves, which belong to the
+     * plies of the last search, and halves every history score.
+     */
+    public void newSearch() {
+        for (int[] plyKillers : killers) {
+            plyKillers[0] = Moves.NONE;
+            plyKillers[1] = Moves.NONE;
+        }
+        for (int[] colorHistory : history) {
+            age(colorHistory);
+        }
+    }
+
+    /**
+     * Scores every move in the buffer of the given ply of the given move list
+     * and sorts the buffer by score.
+     *
+     * @param moveList  the move list holding the moves
+     * @param ply       the ply of the buffer to order
+     * @param color     the bitboard index of the color of the player to move
+     * @param hashMove  the start and end squares of the best move stored in
+     *                  the transposition table, as given by Moves.squares, or
+     *                  0 if there is none
+     */
+    public void order(MoveList moveList, int ply, int color, int hashMove) {
+        int[] plyKillers = killers[ply];
+        int[] colorHistory = history[color];
+        for (int i = 0; i < moveList.size(ply); i++) {
+            int move = moveList.move(ply, i);
+            int score;
+            if (hashMove != 0 && Moves.squares(move) == hashMove) {
+                score = HASH_MOVE_SCORE;
+            } else if (Moves.isCapture(move) || Moves.isPromotion(move)) {
+                score = CAPTURE_SCORE + mvvLva(move);
+            } else if (move == plyKillers[0]) {
+                score = KILLER_SCORE;
+            } else if (move == plyKillers[1]) {
+                score = KILLER_SCORE - 1;
+            } else {
+                score = colorHistory[Moves.squares(move)];
+            }
+            moveList.setScore(ply, i, score);
+        }
+        moveList.sort(ply);
+    }
+
+    /**
+     * Returns true if the given move is one of the killer moves of the given
+     * ply, false otherwise.
+     *
+     * @param  ply   the ply of the killer moves
+     * @param  move  the packed move
+     * @return       true if the move is a killer move of the ply, false otherwise
+     */
+    public boolean isKiller(int ply, int move) {
+        return move == killers[ply][0] || move == killers[ply][1];
+    }
+
+    /**
+     * Records that the given move caused a cutoff at the given ply with the
+     * given depth left. Only quiet moves are recorded, since captures are
+     * already searched early.
+     *
+     * @param ply    the ply of the cutoff
+     * @param color  the bitboard index of the color of the player who moved
+     * @param move   the packed move that caused the cutoff
+     * @param depth  the depth left at the node of the cutoff
+     */
+    public void recordCutoff(int ply, int color, int move, int depth) {
+        if (Moves.isCapture(move) || Moves.isPromotion(move)) {
+            return;
+        }
+        int[] plyKillers = killers[ply];
+        if (plyKillers[0] != move) {
+            plyKillers[1] = plyKillers[0];
+            plyKillers[0] = move;
+        }
+        int[] colorHistory = history[color];
+        int index = Moves.squares(move);
+        colorHistory[index] += depth * depth;
+        if (colorHistory[index] >= MAX_HISTORY) {
+            age(colorHistory);
+        }
+    }
+
+    /**
+     * Returns the MVV-LVA score of the given capture or promotion: higher for
+     * more valuable victims, and for equal victims, higher for less valuable
+     * attackers. A promotion counts as also capturing a queen.
+     *
+     * @param  move  the packed capture or promotion
+     * @return       the MVV-LVA score of the move
+     */
+    private static int mvvLva(int move) {
+        int victim = Moves.isCapture(move) ? Moves.captured(move) + 1 : 0;
+        if (Moves.isPromotion(move)) {
+            victim += Position.QUEEN + 1;
+        }
+        return victim * 8 + Position.KING - Moves.piece(move);
+    }
+
+    /**
+     * Halves every history score in the given table.
+     *
+     * @param colorHistory  the history scores of one color
+     */
+    private static void age(int[] colorHistory) {
+        for (int i = 0; i < colorHistory.length; i++) {
+            colorHistory[i] >>= 1;
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package chess.search;
+
+/**
+ * The ways a search can prune a node or a move without searching it to the
+ * full depth. A searcher counts how often each one is used.
+ */
+public enum Pruning {
+    /**
+     * A node cut off because passing was already good enough for a cutoff.
+     */
+    NULL_MOVE,
+
+    /**
+     * A quiet move near the leaves not searched because the static value of
+     * its node is too far below alpha for a quiet move to raise it.
+     */
+    FUTILITY,
+
+    /**
+     * A node near the leaves cut off because its static value is far enough
+     * above beta, also known as static null-move pruning.
+     */
+    REVERSE_FUTILITY,
+
+    /**
+     * A node near the leaves whose static value is far below alpha, cut off
+     * after only a quiescence search confirms it fails low.
+     */
+    RAZORING
+}
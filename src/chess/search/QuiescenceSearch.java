@@ -0,0 +1,213 @@
+package chess.search;
+
+import chess.*;
+import chess.bitboard.*;
+import chess.pieces.*;
+import chess.heuristics.*;
+
+import static chess.pieces.Piece.Color.*;
+
+/**
+ * Searches only captures and promotions from the leaves of a search until
+ * the position is quiet, so that a leaf is not evaluated in the middle of an
+ * exchange. Evaluating such a leaf directly would miss the recapture just
+ * over the horizon of the search.
+ *
+ * The player to move may always stand pat, keeping the heuristic value of
+ * the position instead of capturing, unless in check, in which case every
+ * legal move is searched. Captures that lose material by static exchange
+ * evaluation are not searched, and neither are captures that could not
+ * raise the value to alpha even if the captured piece were won for free
+ * (delta pruning).
+ */
+public final class QuiescenceSearch {
+    /**
+     * The heuristic value added to the value of the captured piece before a
+     * capture is pruned by delta pruning, covering the positional gain the
+     * capture might bring. Worth two pawns.
+     */
+    private static final int DELTA_MARGIN = 2 * MaterialHeuristic.MATERIAL_WEIGHT;
+
+    /**
+     * The heuristic to evaluate board states with.
+     */
+    private final Heuristic heuristic;
+
+    /**
+     * The buffers the moves of each ply are generated and ordered in.
+     */
+    private final MoveList moveList;
+
+    /**
+     * The number of nodes searched below the positions searches were started
+     * from since the count was last cleared.
+     */
+    private long nodes;
+
+    /**
+     * The buffer static exchange evaluation keeps the gain of each capture in.
+     */
+    private final int[] exchange;
+
+    /**
+     * The number of heuristic evaluations and move generations since the
+     * counts were last cleared, which also decide which of them are sampled
+     * for flight recorder events.
+     */
+    private long evaluations;
+    private long moveGenerations;
+
+    /**
+     * Constructs a new quiescence search that evaluates board states with the
+     * given heuristic and generates moves into the given move list. The
+     * buffers of the plies a quiescence search starts at and below are
+     * overwritten.
+     *
+     * @param heuristic  the heuristic to evaluate board states with
+     * @param moveList   the move list to generate moves into
+     */
+    public QuiescenceSearch(Heuristic heuristic, MoveList moveList) {
+        this.heuristic = heuristic;
+        this.moveList = moveList;
+        exchange = new int[StaticExchange.MAX_CAPTURES];
+    }
+
+    /**
+     * Returns the number of nodes searched below the positions searches were
+     * started from since the count was last cleared.
+     *
+     * @return the number of nodes searched
+     */
+    public long getNodes() {
+        return nodes;
+    }
+
+    /**
+     * Returns the number of heuristic evaluations since the counts were last
+     * cleared.
+     *
+     * @return the number of heuristic evaluations
+     */
+    public long getEvaluations() {
+        return evaluations;
+    }
+
+    /**
+     * Returns the number of move generations since the counts were last
+     * cleared.
+     *
+     * @return the number of move generations
+     */
+    public long getMoveGenerations() {
+        return moveGenerations;
+    }
+
+    /**
+     * Sets the number of nodes searched, heuristic evaluations, and move
+     * generations to 0.
+     */
+    public void clearCounts() {
+        nodes = 0;
+        evaluations = 0;
+        moveGenerations = 0;
+    }
+
+    /**
+     * Returns the value of the current state of the given board for the given
+     * color once no captures worth making are left. The game must not be over.
+     * At the last ply the move list has room for, the heuristic value is
+     * returned as it is, even in check.
+     *
+     * @param  board  the board to search
+     * @param  color  the color of the player to move
+     * @param  ply    the number of moves made since the start of the search
+     * @param  alpha  the alpha value for alpha-beta pruning
+     * @param  beta   the beta value for alpha-beta pruning
+     * @return        the value of the board state for the given color, in
+     *                centipawns
+     */
+    public int search(Board board, Piece.Color color, int ply, int alpha, int beta) {
+        if (ply >= MoveList.MAX_PLY - 1) {
+            return evaluate(board, color, ply);
+        }
+        Position position = board.getPosition();
+        int us = color.getIndex();
+        boolean inCheck = position.inCheck(us);
+        int standPat = -Scores.INFINITY;
+        int count;
+        if (inCheck) {
+            count = (++moveGenerations & MoveGenerationEvent.SAMPLE_MASK) == 0
+                    ? MoveGenerationEvent.generate(moveList, position, us, ply, false)
+                    : moveList.generate(position, us, ply);
+            if (count == 0) {
+                return -Scores.mateIn(ply);
+            }
+        } else {
+            standPat = evaluate(board, color, ply);
+            if (standPat >= beta) {
+                return standPat;
+            }
+            count = (++moveGenerations & MoveGenerationEvent.SAMPLE_MASK) == 0
+                    ? MoveGenerationEvent.generate(moveList, position, us, ply, true)
+                    : moveList.generateCaptures(position, us, ply);
+            for (int i = 0; i < count; i++) {
+                moveList.setScore(ply, i, StaticExchange.evaluate(position, moveList.move(ply, i),
+                                                                  exchange));
+            }
+            moveList.sort(ply);
+        }
+        int best = standPat;
+        Piece.Color opponent = oppositeColor(color);
+        for (int i = 0; i < count; i++) {
+            int move = moveList.move(ply, i);
+            if (!inCheck) {
+                if (moveList.score(ply, i) < 0) {
+                    // The rest of the captures lose material too
+                    break;
+                }
+                if (standPat + gain(move) * MaterialHeuristic.MATERIAL_WEIGHT + DELTA_MARGIN
+                        <= alpha) {
+                    continue;
+                }
+            }
+            nodes++;
+            position.makeMove(move);
+            int value = -search(board, opponent, ply + 1, -beta, -Math.max(alpha, best));
+            position.unmakeMove();
+            best = Math.max(best, value);
+            if (best >= beta) {
+                break;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Returns the heuristic value of the current state of the given board for
+     * the given color, sampling the evaluation for a flight recorder event.
+     *
+     * @param  board  the board to evaluate
+     * @param  color  the color to evaluate the board state for
+     * @param  ply    the number of moves made since the start of the search
+     * @return        the heuristic value of the board state
+     */
+    private int evaluate(Board board, Piece.Color color, int ply) {
+        return (++evaluations & EvaluationEvent.SAMPLE_MASK) == 0
+                ? EvaluationEvent.evaluate(heuristic, board, color, ply)
+                : heuristic.calculateValue(board.getPosition(), color);
+    }
+
+    /**
+     * Returns the material the given move wins if it is not recaptured.
+     *
+     * @param  move  the packed move
+     * @return       the material the move wins
+     */
+    private static int gain(int move) {
+        int gain = Moves.isCapture(move) ? StaticExchange.value(Moves.captured(move)) : 0;
+        if (Moves.isPromotion(move)) {
+            gain += StaticExchange.value(Position.QUEEN) - StaticExchange.value(Position.PAWN);
+        }
+        return gain;
+    }
+}
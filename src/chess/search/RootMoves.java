@@ -0,0 +1,31 @@
+package chess.search;
+
+/**
+ * The legal moves at the root of a search and the values the search found
+ * for them, ordered from best to worst.
+ */
+public interface RootMoves {
+    /**
+     * Returns the number of legal moves at the root.
+     *
+     * @return the number of legal moves at the root
+     */
+    int rootCount();
+
+    /**
+     * Returns the root move at the given index, ordered from best to worst.
+     *
+     * @param  index  the index of the root move
+     * @return        the packed root move at the given index
+     */
+    int rootMove(int index);
+
+    /**
+     * Returns the value found for the root move at the given index. Only the
+     * best value is exact; the others may be upper bounds.
+     *
+     * @param  index  the index of the root move
+     * @return        the value of the root move at the given index
+     */
+    int rootValue(int index);
+}
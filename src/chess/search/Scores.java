@@ -0,0 +1,86 @@
+package chess.search;
+
+import chess.bitboard.*;
+
+/**
+ * The integer scores of a search, in centipawns like heuristic values. A
+ * checkmate is scored as MATE less the number of moves made from the root
+ * to reach it, so a shorter mate scores higher than a longer one and being
+ * mated later scores higher than being mated sooner. Every score fits in 16
+ * bits.
+ */
+public final class Scores {
+    /**
+     * The score of checkmating the opponent at the root. A mate after ply
+     * moves scores MATE - ply.
+     */
+    public static final int MATE = 32000;
+
+    /**
+     * A score above every other score, used as the bounds of a full window.
+     */
+    public static final int INFINITY = MATE + 1;
+
+    /**
+     * The least absolute value of a mate score. Every heuristic value is
+     * below it.
+     */
+    public static final int MATE_BOUND = MATE - MoveList.MAX_PLY;
+
+    /**
+     * Not a score: returned by a search that was stopped, or for a position
+     * whose game is not over.
+     */
+    public static final int NONE = Integer.MIN_VALUE;
+
+    private Scores() {}
+
+    /**
+     * Returns the score of checkmating the opponent with the move made at the
+     * given ply.
+     *
+     * @param  ply  the number of moves made since the start of the search,
+     *              including the mating move
+     * @return      the score of the mate for the player who mates
+     */
+    public static int mateIn(int ply) {
+        return MATE - ply;
+    }
+
+    /**
+     * Returns true if the given score is a mate for either player, false
+     * otherwise.
+     *
+     * @param  score  the score
+     * @return        true if the score is a mate score, false otherwise
+     */
+    public static boolean isMate(int score) {
+        return Math.abs(score) >= MATE_BOUND;
+    }
+
+    /**
+     * Returns the given score, found at the given ply, relative to its own
+     * position instead of the root, so that it can be stored in the
+     * transposition table and used wherever the position is reached again.
+     *
+     * @param  score  the score relative to the root
+     * @param  ply    the ply the score was found at
+     * @return        the score relative to its position
+     */
+    public static int toTable(int score, int ply) {
+        return score >= MATE_BOUND ? score + ply : score <= -MATE_BOUND ? score - ply : score;
+    }
+
+    /**
+     * Returns the given score from the transposition table, relative to its
+     * position, relative to the root instead when its position is reached at
+     * the given ply. Undoes toTable.
+     *
+     * @param  score  the score relative to its position
+     * @param  ply    the ply the position is reached at
+     * @return        the score relative to the root
+     */
+    public static int fromTable(int score, int ply) {
+        return score >= MATE_BOUND ? score - ply : score <= -MATE_BOUND ? score + ply : score;
+    }
+}
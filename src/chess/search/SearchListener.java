@@ -0,0 +1,15 @@
+package chess.search;
+
+/**
+ * Listens to the progress of a search.
+ */
+public interface SearchListener {
+    /**
+     * Called by the searching thread each time the search completes an
+     * iteration, with the statistics of the search right after it. Should
+     * return quickly, since the search waits for it.
+     *
+     * @param stats  the statistics of the search after the iteration
+     */
+    void iterationCompleted(SearchStats stats);
+}
@@ -0,0 +1,551 @@
+package chess.search;
+
+import chess.heuristics.*;
+
+/**
+ * The settings of the selective parts of a search, which skip or shorten the
+ * search of moves that are unlikely to matter. Each technique can be turned
+ * off on its own, so its effect can be measured against the same search
+ * without it, and its parameters can be tuned.
+ *
+ * The options are read by every searcher they are given to while it
+ * searches, so they should only be changed between searches.
+ */
+public final class SearchOptions {
+    /**
+     * The default number of plies the search after a null move is reduced by,
+     * on top of the ply of the null move itself.
+     */
+    public static final int DEFAULT_NULL_MOVE_REDUCTION = 2;
+
+    /**
+     * The default least depth left at which a null move is tried.
+     */
+    public static final int DEFAULT_NULL_MOVE_MIN_DEPTH = 3;
+
+    /**
+     * The default least depth left at which late moves are reduced.
+     */
+    public static final int DEFAULT_LATE_MOVE_MIN_DEPTH = 3;
+
+    /**
+     * The default number of moves of a node searched before any are reduced.
+     */
+    public static final int DEFAULT_LATE_MOVE_MIN_INDEX = 3;
+
+    /**
+     * The default constant part of a late move reduction.
+     */
+    public static final double DEFAULT_LATE_MOVE_BASE = 0.75;
+
+    /**
+     * The default divisor of the part of a late move reduction that grows
+     * with the depth left and the index of the move.
+     */
+    public static final double DEFAULT_LATE_MOVE_DIVISOR = 2.25;
+
+    /**
+     * The default greatest depth left at which quiet moves are pruned by
+     * futility pruning.
+     */
+    public static final int DEFAULT_FUTILITY_MAX_DEPTH = 2;
+
+    /**
+     * The default futility margin per ply of depth left, a pawn and a half.
+     */
+    public static final int DEFAULT_FUTILITY_MARGIN = 3 * MaterialHeuristic.MATERIAL_WEIGHT / 2;
+
+    /**
+     * The default greatest depth left at which nodes are cut off by reverse
+     * futility pruning.
+     */
+    public static final int DEFAULT_REVERSE_FUTILITY_MAX_DEPTH = 3;
+
+    /**
+     * The default reverse futility margin per ply of depth left, a pawn.
+     */
+    public static final int DEFAULT_REVERSE_FUTILITY_MARGIN = MaterialHeuristic.MATERIAL_WEIGHT;
+
+    /**
+     * The default greatest depth left at which nodes are razored.
+     */
+    public static final int DEFAULT_RAZORING_MAX_DEPTH = 2;
+
+    /**
+     * The default razoring margin per ply of depth left, two pawns.
+     */
+    public static final int DEFAULT_RAZORING_MARGIN = 2 * MaterialHeuristic.MATERIAL_WEIGHT;
+
+    /**
+     * Whether null-move pruning is used.
+     */
+    private boolean nullMovePruning;
+
+    /**
+     * The number of plies the search after a null move is reduced by.
+     */
+    private int nullMoveReduction;
+
+    /**
+     * The least depth left at which a null move is tried.
+     */
+    private int nullMoveMinDepth;
+
+    /**
+     * Whether late move reductions are used.
+     */
+    private boolean lateMoveReductions;
+
+    /**
+     * The least depth left at which late moves are reduced.
+     */
+    private int lateMoveMinDepth;
+
+    /**
+     * The number of moves of a node searched before any are reduced.
+     */
+    private int lateMoveMinIndex;
+
+    /**
+     * The constant part of a late move reduction.
+     */
+    private double lateMoveBase;
+
+    /**
+     * The divisor of the part of a late move reduction that grows with the
+     * depth left and the index of the move.
+     */
+    private double lateMoveDivisor;
+
+    /**
+     * Whether futility pruning is used.
+     */
+    private boolean futilityPruning;
+
+    /**
+     * The greatest depth left at which quiet moves are pruned by futility
+     * pruning.
+     */
+    private int futilityMaxDepth;
+
+    /**
+     * The futility margin per ply of depth left.
+     */
+    private int futilityMargin;
+
+    /**
+     * Whether reverse futility pruning is used.
+     */
+    private boolean reverseFutilityPruning;
+
+    /**
+     * The greatest depth left at which nodes are cut off by reverse futility
+     * pruning.
+     */
+    private int reverseFutilityMaxDepth;
+
+    /**
+     * The reverse futility margin per ply of depth left.
+     */
+    private int reverseFutilityMargin;
+
+    /**
+     * Whether razoring is used.
+     */
+    private boolean razoring;
+
+    /**
+     * The greatest depth left at which nodes are razored.
+     */
+    private int razoringMaxDepth;
+
+    /**
+     * The razoring margin per ply of depth left.
+     */
+    private int razoringMargin;
+
+    /**
+     * Constructs new search options with every technique turned on and the
+     * default parameters.
+     */
+    public SearchOptions() {
+        nullMovePruning = true;
+        nullMoveReduction = DEFAULT_NULL_MOVE_REDUCTION;
+        nullMoveMinDepth = DEFAULT_NULL_MOVE_MIN_DEPTH;
+        lateMoveReductions = true;
+        lateMoveMinDepth = DEFAULT_LATE_MOVE_MIN_DEPTH;
+        lateMoveMinIndex = DEFAULT_LATE_MOVE_MIN_INDEX;
+        lateMoveBase = DEFAULT_LATE_MOVE_BASE;
+        lateMoveDivisor = DEFAULT_LATE_MOVE_DIVISOR;
+        futilityPruning = true;
+        futilityMaxDepth = DEFAULT_FUTILITY_MAX_DEPTH;
+        futilityMargin = DEFAULT_FUTILITY_MARGIN;
+        reverseFutilityPruning = true;
+        reverseFutilityMaxDepth = DEFAULT_REVERSE_FUTILITY_MAX_DEPTH;
+        reverseFutilityMargin = DEFAULT_REVERSE_FUTILITY_MARGIN;
+        razoring = true;
+        razoringMaxDepth = DEFAULT_RAZORING_MAX_DEPTH;
+        razoringMargin = DEFAULT_RAZORING_MARGIN;
+    }
+
+    /**
+     * Returns true if null-move pruning is used, false otherwise.
+     *
+     * @return true if null-move pruning is used, false otherwise
+     */
+    public boolean isNullMovePruning() {
+        return nullMovePruning;
+    }
+
+    /**
+     * Sets whether null-move pruning is used. With null-move pruning, the
+     * player to move first passes, and if a shallower search shows that the
+     * position is still good enough for a cutoff, the node is cut off without
+     * searching any moves. It is not used when the player to move only has
+     * pawns and a king, where passing would often be better than any move.
+     *
+     * @param nullMovePruning  whether null-move pruning is used
+     */
+    public void setNullMovePruning(boolean nullMovePruning) {
+        this.nullMovePruning = nullMovePruning;
+    }
+
+    /**
+     * Returns the number of plies the search after a null move is reduced by.
+     *
+     * @return the null-move reduction
+     */
+    public int getNullMoveReduction() {
+        return nullMoveReduction;
+    }
+
+    /**
+     * Sets the number of plies the search after a null move is reduced by, on
+     * top of the ply of the null move itself.
+     *
+     * @param  nullMoveReduction  the null-move reduction
+     * @throws IllegalArgumentException if nullMoveReduction is negative
+     */
+    public void setNullMoveReduction(int nullMoveReduction) {
+        if (nullMoveReduction < 0) {
+            throw new IllegalArgumentException("Null-move reduction must not be negative.");
+        }
+        this.nullMoveReduction = nullMoveReduction;
+    }
+
+    /**
+     * Returns the least depth left at which a null move is tried.
+     *
+     * @return the least depth for null-move pruning
+     */
+    public int getNullMoveMinDepth() {
+        return nullMoveMinDepth;
+    }
+
+    /**
+     * Sets the least depth left at which a null move is tried.
+     *
+     * @param  nullMoveMinDepth  the least depth for null-move pruning
+     * @throws IllegalArgumentException if nullMoveMinDepth is less than 1
+     */
+    public void setNullMoveMinDepth(int nullMoveMinDepth) {
+        if (nullMoveMinDepth < 1) {
+            throw new IllegalArgumentException("Null-move depth must be at least 1.");
+        }
+        this.nullMoveMinDepth = nullMoveMinDepth;
+    }
+
+    /**
+     * Returns true if late move reductions are used, false otherwise.
+     *
+     * @return true if late move reductions are used, false otherwise
+     */
+    public boolean isLateMoveReductions() {
+        return lateMoveReductions;
+    }
+
+    /**
+     * Sets whether late move reductions are used. With late move reductions,
+     * quiet moves ordered late, which rarely turn out best, are searched less
+     * deep than the other moves, and searched again to the full depth if they
+     * turn out better than alpha anyway.
+     *
+     * @param lateMoveReductions  whether late move reductions are used
+     */
+    public void setLateMoveReductions(boolean lateMoveReductions) {
+        this.lateMoveReductions = lateMoveReductions;
+    }
+
+    /**
+     * Returns the least depth left at which late moves are reduced.
+     *
+     * @return the least depth for late move reductions
+     */
+    public int getLateMoveMinDepth() {
+        return lateMoveMinDepth;
+    }
+
+    /**
+     * Sets the least depth left at which late moves are reduced.
+     *
+     * @param  lateMoveMinDepth  the least depth for late move reductions
+     * @throws IllegalArgumentException if lateMoveMinDepth is less than 2
+     */
+    public void setLateMoveMinDepth(int lateMoveMinDepth) {
+        if (lateMoveMinDepth < 2) {
+            throw new IllegalArgumentException("Late move reduction depth must be at least 2.");
+        }
+        this.lateMoveMinDepth = lateMoveMinDepth;
+    }
+
+    /**
+     * Returns the number of moves of a node searched before any are reduced.
+     *
+     * @return the index of the first move that may be reduced
+     */
+    public int getLateMoveMinIndex() {
+        return lateMoveMinIndex;
+    }
+
+    /**
+     * Sets the number of moves of a node searched before any are reduced.
+     *
+     * @param  lateMoveMinIndex  the index of the first move that may be reduced
+     * @throws IllegalArgumentException if lateMoveMinIndex is less than 1
+     */
+    public void setLateMoveMinIndex(int lateMoveMinIndex) {
+        if (lateMoveMinIndex < 1) {
+            throw new IllegalArgumentException("Late move index must be at least 1.");
+        }
+        this.lateMoveMinIndex = lateMoveMinIndex;
+    }
+
+    /**
+     * Returns the constant part of a late move reduction.
+     *
+     * @return the constant part of a late move reduction
+     */
+    public double getLateMoveBase() {
+        return lateMoveBase;
+    }
+
+    /**
+     * Returns the divisor of the part of a late move reduction that grows
+     * with the depth left and the index of the move.
+     *
+     * @return the divisor of a late move reduction
+     */
+    public double getLateMoveDivisor() {
+        return lateMoveDivisor;
+    }
+
+    /**
+     * Sets how many plies late moves are reduced by. A move at index i of a
+     * node with depth d left is reduced by base + ln(d) * ln(i) / divisor
+     * plies, rounded down, so later moves and deeper nodes are reduced more.
+     *
+     * @param  base     the constant part of a late move reduction
+     * @param  divisor  the divisor of the growing part of a late move reduction
+     * @throws IllegalArgumentException if divisor is not positive
+     */
+    public void setLateMoveReduction(double base, double divisor) {
+        if (!(divisor > 0)) {
+            throw new IllegalArgumentException("Late move divisor must be positive.");
+        }
+        lateMoveBase = base;
+        lateMoveDivisor = divisor;
+    }
+
+    /**
+     * Returns the number of plies to reduce the move at the given index of a
+     * node with the given depth left by, if late move reductions apply to it.
+     *
+     * @param  depth  the depth left at the node
+     * @param  index  the index of the move among the moves of the node
+     * @return        the number of plies to reduce the move by, at least 0
+     */
+    public int lateMoveReduction(int depth, int index) {
+        return Math.max(0, (int) (lateMoveBase
+                                  + Math.log(depth) * Math.log(index) / lateMoveDivisor));
+    }
+
+    /**
+     * Returns true if futility pruning is used, false otherwise.
+     *
+     * @return true if futility pruning is used, false otherwise
+     */
+    public boolean isFutilityPruning() {
+        return futilityPruning;
+    }
+
+    /**
+     * Sets whether futility pruning is used. With futility pruning, if the
+     * heuristic value of a node near the leaves plus the futility margin for
+     * its depth is still at most alpha, its quiet moves that do not give
+     * check are not searched, since they are unlikely to gain that much.
+     *
+     * @param futilityPruning  whether futility pruning is used
+     */
+    public void setFutilityPruning(boolean futilityPruning) {
+        this.futilityPruning = futilityPruning;
+    }
+
+    /**
+     * Returns the greatest depth left at which quiet moves are pruned by
+     * futility pruning.
+     *
+     * @return the greatest depth for futility pruning
+     */
+    public int getFutilityMaxDepth() {
+        return futilityMaxDepth;
+    }
+
+    /**
+     * Sets the greatest depth left at which quiet moves are pruned by futility
+     * pruning.
+     *
+     * @param futilityMaxDepth  the greatest depth for futility pruning
+     */
+    public void setFutilityMaxDepth(int futilityMaxDepth) {
+        this.futilityMaxDepth = futilityMaxDepth;
+    }
+
+    /**
+     * Returns the futility margin per ply of depth left, in centipawns.
+     *
+     * @return the futility margin per ply
+     */
+    public int getFutilityMargin() {
+        return futilityMargin;
+    }
+
+    /**
+     * Sets the futility margin per ply of depth left, in centipawns.
+     *
+     * @param futilityMargin  the futility margin per ply
+     */
+    public void setFutilityMargin(int futilityMargin) {
+        this.futilityMargin = futilityMargin;
+    }
+
+    /**
+     * Returns true if reverse futility pruning is used, false otherwise.
+     *
+     * @return true if reverse futility pruning is used, false otherwise
+     */
+    public boolean isReverseFutilityPruning() {
+        return reverseFutilityPruning;
+    }
+
+    /**
+     * Sets whether reverse futility pruning is used. With reverse futility
+     * pruning, if the heuristic value of a node near the leaves minus the
+     * reverse futility margin for its depth is still at least beta, the node
+     * is cut off without searching any moves, since the opponent is unlikely
+     * to win that much back in the few plies left. A node is never cut off
+     * this way when beta is a mate score.
+     *
+     * @param reverseFutilityPruning  whether reverse futility pruning is used
+     */
+    public void setReverseFutilityPruning(boolean reverseFutilityPruning) {
+        this.reverseFutilityPruning = reverseFutilityPruning;
+    }
+
+    /**
+     * Returns the greatest depth left at which nodes are cut off by reverse
+     * futility pruning.
+     *
+     * @return the greatest depth for reverse futility pruning
+     */
+    public int getReverseFutilityMaxDepth() {
+        return reverseFutilityMaxDepth;
+    }
+
+    /**
+     * Sets the greatest depth left at which nodes are cut off by reverse
+     * futility pruning.
+     *
+     * @param reverseFutilityMaxDepth  the greatest depth for reverse futility
+     *                                 pruning
+     */
+    public void setReverseFutilityMaxDepth(int reverseFutilityMaxDepth) {
+        this.reverseFutilityMaxDepth = reverseFutilityMaxDepth;
+    }
+
+    /**
+     * Returns the reverse futility margin per ply of depth left, in
+     * centipawns.
+     *
+     * @return the reverse futility margin per ply
+     */
+    public int getReverseFutilityMargin() {
+        return reverseFutilityMargin;
+    }
+
+    /**
+     * Sets the reverse futility margin per ply of depth left, in
+     * centipawns.
+     *
+     * @param reverseFutilityMargin  the reverse futility margin per ply
+     */
+    public void setReverseFutilityMargin(int reverseFutilityMargin) {
+        this.reverseFutilityMargin = reverseFutilityMargin;
+    }
+
+    /**
+     * Returns true if razoring is used, false otherwise.
+     *
+     * @return true if razoring is used, false otherwise
+     */
+    public boolean isRazoring() {
+        return razoring;
+    }
+
+    /**
+     * Sets whether razoring is used. With razoring, if the heuristic value of
+     * a node near the leaves plus the razoring margin for its depth is still
+     * at most alpha, only a quiescence search is done, and the node is cut
+     * off if that fails low too.
+     *
+     * @param razoring  whether razoring is used
+     */
+    public void setRazoring(boolean razoring) {
+        this.razoring = razoring;
+    }
+
+    /**
+     * Returns the greatest depth left at which nodes are razored.
+     *
+     * @return the greatest depth for razoring
+     */
+    public int getRazoringMaxDepth() {
+        return razoringMaxDepth;
+    }
+
+    /**
+     * Sets the greatest depth left at which nodes are razored.
+     *
+     * @param razoringMaxDepth  the greatest depth for razoring
+     */
+    public void setRazoringMaxDepth(int razoringMaxDepth) {
+        this.razoringMaxDepth = razoringMaxDepth;
+    }
+
+    /**
+     * Returns the razoring margin per ply of depth left, in centipawns.
+     *
+     * @return the razoring margin per ply
+     */
+    public int getRazoringMargin() {
+        return razoringMargin;
+    }
+
+    /**
+     * Sets the razoring margin per ply of depth left, in centipawns.
+     *
+     * @param razoringMargin  the razoring margin per ply
+     */
+    public void setRazoringMargin(int razoringMargin) {
+        this.razoringMargin = razoringMargin;
+    }
+}
@@ -0,0 +1,269 @@
+package chess.search;
+
+/**
+ * The statistics of a search at one moment: the depth and value of its last
+ * completed iteration with the principal variation of its best move, and the
+ * counts of the work done since the search started. A searcher takes one
+ * after each iteration it completes and whenever asked. The counts are
+ * cheap counters the search keeps anyway, and none of them include helper
+ * threads.
+ */
+public final class SearchStats {
+    /**
+     * The depth of the last completed iteration, or 0 if none has completed.
+     */
+    private final int depth;
+
+    /**
+     * The value of the best root move found by the last completed iteration.
+     */
+    private final int score;
+
+    /**
+     * The packed moves of the principal variation of the best root move.
+     */
+    private final int[] principalVariation;
+
+    /**
+     * The number of nodes searched, including quiescence nodes.
+     */
+    private final long nodes;
+
+    /**
+     * The number of nanoseconds since the search started.
+     */
+    private final long elapsedNanos;
+
+    /**
+     * The number of times the transposition table was probed, and the number
+     * of those probes that found an entry for the position.
+     */
+    private final long tableProbes;
+    private final long tableHits;
+
+    /**
+     * The number of nodes whose moves were searched, the number of those cut
+     * off by a move worth at least beta, and the number cut off by their
+     * first move.
+     */
+    private final long expandedNodes;
+    private final long cutoffs;
+    private final long firstMoveCutoffs;
+
+    /**
+     * The number of heuristic evaluations, and the number of move
+     * generations, including the counts of legal moves made to find out
+     * whether the game is over.
+     */
+    private final long evaluations;
+    private final long moveGenerations;
+
+    /**
+     * Constructs new search statistics with the given values.
+     *
+     * @param depth               the depth of the last completed iteration
+     * @param score               the value of the best root move
+     * @param principalVariation  the principal variation of the best root move
+     * @param nodes               the number of nodes searched
+     * @param elapsedNanos        the number of nanoseconds since the search
+     *                            started
+     * @param tableProbes         the number of transposition table probes
+     * @param tableHits           the number of probes that found an entry
+     * @param expandedNodes       the number of nodes whose moves were searched
+     * @param cutoffs             the number of nodes cut off by a move
+     * @param firstMoveCutoffs    the number of nodes cut off by their first move
+     * @param evaluations         the number of heuristic evaluations
+     * @param moveGenerations     the number of move generations
+     */
+    SearchStats(int depth, int score, int[] principalVariation, long nodes, long elapsedNanos,
+                long tableProbes, long tableHits, long expandedNodes, long cutoffs,
+                long firstMoveCutoffs, long evaluations, long moveGenerations) {
+        this.depth = depth;
+        this.score = score;
+        this.principalVariation = principalVariation;
+        this.nodes = nodes;
+        this.elapsedNanos = elapsedNanos;
+        this.tableProbes = tableProbes;
+        this.tableHits = tableHits;
+        this.expandedNodes = expandedNodes;
+        this.cutoffs = cutoffs;
+        this.firstMoveCutoffs = firstMoveCutoffs;
+        this.evaluations = evaluations;
+        this.moveGenerations = moveGenerations;
+    }
+
+    /**
+     * Returns the depth of the last completed iteration, or 0 if none has
+     * completed.
+     *
+     * @return the depth reached by the search
+     */
+    public int getDepth() {
+        return depth;
+    }
+
+    /**
+     * Returns the value of the best root move found by the last completed
+     * iteration for the player to move, in centipawns or as a mate score, or
+     * Scores.NONE if no iteration has completed.
+     *
+     * @return the value of the best root move
+     */
+    public int getScore() {
+        return score;
+    }
+
+    /**
+     * Returns the packed moves of the principal variation of the best root
+     * move, starting with the move, or none if no iteration has completed.
+     *
+     * @return the packed moves of the principal variation
+     */
+    public int[] getPrincipalVariation() {
+        return principalVariation.clone();
+    }
+
+    /**
+     * Returns the number of nodes searched, including quiescence nodes.
+     *
+     * @return the number of nodes searched
+     */
+    public long getNodes() {
+        return nodes;
+    }
+
+    /**
+     * Returns the number of milliseconds since the search started.
+     *
+     * @return the time the search has taken in milliseconds
+     */
+    public long getElapsedMillis() {
+        return elapsedNanos / 1000000;
+    }
+
+    /**
+     * Returns the number of nodes searched per second.
+     *
+     * @return the number of nodes searched per second
+     */
+    public long getNodesPerSecond() {
+        return elapsedNanos == 0 ? 0 : (long) (nodes * 1e9 / elapsedNanos);
+    }
+
+    /**
+     * Returns the number of times the transposition table was probed.
+     *
+     * @return the number of transposition table probes
+     */
+    public long getTableProbes() {
+        return tableProbes;
+    }
+
+    /**
+     * Returns the number of transposition table probes that found an entry
+     * for the position.
+     *
+     * @return the number of transposition table hits
+     */
+    public long getTableHits() {
+        return tableHits;
+    }
+
+    /**
+     * Returns the fraction of transposition table probes that found an entry
+     * for the position, or 0 if there were none.
+     *
+     * @return the hit rate of the transposition table
+     */
+    public double getTableHitRate() {
+        return tableProbes == 0 ? 0 : (double) tableHits / tableProbes;
+    }
+
+    /**
+     * Returns the number of nodes cut off by a move worth at least beta.
+     *
+     * @return the number of beta cutoffs
+     */
+    public long getCutoffs() {
+        return cutoffs;
+    }
+
+    /**
+     * Returns the number of nodes cut off by the first move searched.
+     *
+     * @return the number of first move cutoffs
+     */
+    public long getFirstMoveCutoffs() {
+        return firstMoveCutoffs;
+    }
+
+    /**
+     * Returns the fraction of the nodes whose moves were searched that were
+     * cut off by a move worth at least beta, or 0 if there were none.
+     *
+     * @return the beta cutoff rate
+     */
+    public double getCutoffRate() {
+        return expandedNodes == 0 ? 0 : (double) cutoffs / expandedNodes;
+    }
+
+    /**
+     * Returns the fraction of beta cutoffs made by the first move searched,
+     * or 0 if there were none. The closer to 1, the better the moves are
+     * ordered.
+     *
+     * @return the fraction of cutoffs made by the first move
+     */
+    public double getFirstMoveCutoffRate() {
+        return cutoffs == 0 ? 0 : (double) firstMoveCutoffs / cutoffs;
+    }
+
+    /**
+     * Returns the number of times a board state was evaluated with the
+     * heuristic.
+     *
+     * @return the number of heuristic evaluations
+     */
+    public long getEvaluations() {
+        return evaluations;
+    }
+
+    /**
+     * Returns the number of times moves were generated, including the counts
+     * of legal moves made after each move to find out whether the game is
+     * over.
+     *
+     * @return the number of move generations
+     */
+    public long getMoveGenerations() {
+        return moveGenerations;
+    }
+
+    /**
+     * Returns the effective branching factor of the search: the number of
+     * moves each node would need to have for a full tree of the depth
+     * reached to have as many nodes as were searched, or 0 if no iteration
+     * has completed.
+     *
+     * @return the effective branching factor
+     */
+    public double getBranchingFactor() {
+        return depth == 0 ? 0 : Math.pow(nodes, 1.0 / depth);
+    }
+
+    /**
+     * Returns a string representation of these statistics on one line,
+     * without the principal variation, whose packed moves only a board can
+     * turn into notation.
+     *
+     * @return a string representation of these statistics
+     */
+    @Override
+    public String toString() {
+        return String.format("depth %d score %d nodes %d time %d ms nps %d hits %.1f%% "
+                             + "cutoffs %.1f%% first %.1f%% ebf %.2f",
+                             depth, score, nodes, getElapsedMillis(), getNodesPerSecond(),
+                             getTableHitRate() * 100, getCutoffRate() * 100,
+                             getFirstMoveCutoffRate() * 100, getBranchingFactor());
+    }
+}
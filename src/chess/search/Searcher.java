@@ -0,0 +1,1306 @@
+package chess.search;
+
+import chess.*;
+import chess.bitboard.*;
+import chess.pieces.*;
+import chess.heuristics.*;
+
+import java.util.*;
+
+import static chess.pieces.Piece.Color.*;
+
+/**
+ * Searches the board states reachable from one board with the negamax
+ * algorithm, a version of minimax applicable to zero-sum games, with
+ * alpha-beta pruning. Packed moves are made and unmade directly on the
+ * board's bitboard position, so the squares of the board are not touched.
+ *
+ * A searcher is used by one thread at a time. Several searchers on copies of
+ * the same board can share a transposition table and run in parallel, and
+ * any searcher can be stopped from another thread.
+ *
+ * A deterministic searcher keeps its transposition table stores and move
+ * ordering cutoffs until the end of each pass over the root instead of
+ * making them at once, so the result of every node depends only on its
+ * position, its window, and the table and move ordering as they were when
+ * the pass started. That is what lets a YoungBrothersWait search split the
+ * nodes of a deterministic searcher between threads and still find exactly
+ * the result the searcher finds on its own.
+ */
+public final class Searcher implements RootMoves {
+    /**
+     * The distance from the value of the last iteration to each end of the
+     * first aspiration window of the next, a quarter of a pawn.
+     */
+    private static final int ASPIRATION_WINDOW = MaterialHeuristic.MATERIAL_WEIGHT / 4;
+
+    /**
+     * The number of nodes searched between checks of the deadline and the
+     * node limit, one less than a power of two.
+     */
+    private static final int LIMIT_CHECK_MASK = 1023;
+
+    /**
+     * The greatest depth a search can be run to. Half of the plies the move
+     * list has room for, so that the quiescence search below the deepest
+     * leaf has the other half for its captures and check evasions.
+     */
+    public static final int MAX_DEPTH = MoveList.MAX_PLY / 2;
+
+    /**
+     * The board this searcher searches from.
+     */
+    private final Board board;
+
+    /**
+     * The heuristic to evaluate board states with.
+     */
+    private final Heuristic heuristic;
+
+    /**
+     * The settings of the selective parts of the search.
+     */
+    private final SearchOptions options;
+
+    /**
+     * The results of earlier searches, used to cut off the search of board
+     * states already searched deep enough and to search best moves first.
+     */
+    private final TranspositionTable table;
+
+    /**
+     * The buffers the moves of each ply below the root are generated and
+     * ordered in.
+     */
+    private final MoveList moveList;
+
+    /**
+     * The killer moves and history scores used to order the moves of each
+     * node.
+     */
+    private final MoveOrdering ordering;
+
+    /**
+     * The search of captures from the leaves.
+     */
+    private final QuiescenceSearch quiescence;
+
+    /**
+     * The legal moves at the root, ordered by the value found for each by the
+     * last completed iteration.
+     */
+    private final int[] rootMoves;
+
+    /**
+     * The value found for each root move by the last completed iteration.
+     */
+    private final int[] rootValues;
+
+    /**
+     * The value found for each root move by the current iteration.
+     */
+    private final int[] iterationValues;
+
+    /**
+     * The best values found by the current iteration, the best first, as
+     * many as there are lines.
+     */
+    private final int[] lineValues;
+
+    /**
+     * The principal variation found for each root move by the last completed
+     * iteration, starting with the move, and the number of moves in each.
+     */
+    private int[][] rootPvs;
+    private int[] rootPvLengths;
+
+    /**
+     * The principal variation found for each root move by the current
+     * iteration, and the number of moves in each. Swapped with the root
+     * principal variations when an iteration completes.
+     */
+    private int[][] iterationPvs;
+    private int[] iterationPvLengths;
+
+    /**
+     * The principal variation of the node searched last at each ply below
+     * the root, and the number of moves in each. The variation of a node is
+     * its best move followed by the variation of the node after that move,
+     * and is only kept while the best value is inside the window.
+     */
+    private final int[][] pv;
+    private final int[] pvLengths;
+
+    /**
+     * The number of legal moves at the root.
+     */
+    private int rootCount;
+
+    /**
+     * The number of root moves to find exact values and principal variations
+     * for.
+     */
+    private int multiPv;
+
+    /**
+     * Whether the current search has been stopped.
+     */
+    private volatile boolean stopped;
+
+    /**
+     * Whether the current search stops itself at the deadline.
+     */
+    private boolean hasDeadline;
+
+    /**
+     * The value of System.nanoTime at which the current search stops itself.
+     */
+    private long deadline;
+
+    /**
+     * The number of nodes after which the current search stops itself, or 0
+     * for no limit.
+     */
+    private long nodeLimit;
+
+    /**
+     * Whether an iteration of the current search has completed.
+     */
+    private boolean completed;
+
+    /**
+     * The number of nodes searched since the start of the current search.
+     */
+    private long nodes;
+
+    /**
+     * The number of times each pruning technique has been used since the
+     * start of the current search, indexed by ordinal.
+     */
+    private final long[] prunings;
+
+    /**
+     * The number of transposition table probes, the number of those that
+     * found an entry, the number of nodes whose moves were searched, the
+     * number of those cut off by a move, and the number cut off by their
+     * first move, since the start of the current search.
+     */
+    private long tableProbes;
+    private long tableHits;
+    private long expandedNodes;
+    private long cutoffs;
+    private long firstMoveCutoffs;
+
+    /**
+     * The number of heuristic evaluations and move generations outside the
+     * quiescence search since the start of the current search, which also
+     * decide which of them are sampled for flight recorder events.
+     */
+    private long evaluations;
+    private long moveGenerations;
+
+    /**
+     * The value of System.nanoTime when the current search started.
+     */
+    private long startTime;
+
+    /**
+     * The depth of the last iteration of the current search that completed,
+     * or 0 if none has.
+     */
+    private int completedDepth;
+
+    /**
+     * The listener told about each completed iteration, or null.
+     */
+    private SearchListener listener;
+
+    /**
+     * The table stores and cutoffs of the current pass over the root, kept
+     * until the pass ends, or null if this searcher is not deterministic and
+     * makes them at once.
+     */
+    private DeferredWrites deferred;
+
+    /**
+     * The parallel search that searches the younger brothers of the nodes of
+     * this searcher, or null if they are searched serially.
+     */
+    private YoungBrothersWait splitter;
+
+    /**
+     * The place in the tree of parallel searches of what this searcher is
+     * searching, or null if it is not part of a parallel search.
+     */
+    private YoungBrothersWait.Node node;
+
+    /**
+     * Constructs a new searcher for the given board that evaluates board
+     * states with the given heuristic and stores results in the given table,
+     * with the default search options.
+     *
+     * @param board      the board to search from
+     * @param heuristic  the heuristic to evaluate board states with
+     * @param table      the transposition table to use
+     */
+    public Searcher(Board board, Heuristic heuristic, TranspositionTable table) {
+        this(board, heuristic, table, new SearchOptions());
+    }
+
+    /**
+     * Constructs a new searcher for the given board that evaluates board
+     * states with the given heuristic, stores results in the given table, and
+     * searches selectively as set in the given options.
+     *
+     * @param board      the board to search from
+     * @param heuristic  the heuristic to evaluate board states with
+     * @param table      the transposition table to use
+     * @param options    the settings of the selective parts of the search
+     */
+    public Searcher(Board board, Heuristic heuristic, TranspositionTable table,
+                    SearchOptions options) {
+        this.board = board;
+        this.heuristic = heuristic;
+        this.table = table;
+        this.options = options;
+        moveList = new MoveList();
+        ordering = new MoveOrdering();
+        quiescence = new QuiescenceSearch(heuristic, moveList);
+        rootMoves = new int[MoveGenerator.MAX_MOVES];
+        rootValues = new int[MoveGenerator.MAX_MOVES];
+        iterationValues = new int[MoveGenerator.MAX_MOVES];
+        lineValues = new int[MoveGenerator.MAX_MOVES];
+        rootPvs = new int[MoveGenerator.MAX_MOVES][MoveList.MAX_PLY];
+        rootPvLengths = new int[MoveGenerator.MAX_MOVES];
+        iterationPvs = new int[MoveGenerator.MAX_MOVES][MoveList.MAX_PLY];
+        iterationPvLengths = new int[MoveGenerator.MAX_MOVES];
+        pv = new int[MoveList.MAX_PLY][MoveList.MAX_PLY];
+        pvLengths = new int[MoveList.MAX_PLY];
+        multiPv = 1;
+        prunings = new long[Pruning.values().length];
+    }
+
+    /**
+     * Constructs a new deterministic searcher that searches the younger
+     * brothers split from the nodes of the given searcher. It shares the
+     * heuristic, transposition table, search options, and move ordering of
+     * that searcher, but has its own board and buffers, and no root moves.
+     *
+     * @param main      the searcher whose nodes are split
+     * @param splitter  the parallel search the nodes are split by
+     */
+    Searcher(Searcher main, YoungBrothersWait splitter) {
+        board = new Board(main.board);
+        heuristic = main.heuristic;
+        table = main.table;
+        options = main.options;
+        moveList = new MoveList();
+        ordering = new MoveOrdering(main.ordering);
+        quiescence = new QuiescenceSearch(heuristic, moveList);
+        rootMoves = new int[0];
+        rootValues = new int[0];
+        iterationValues = new int[0];
+        lineValues = new int[0];
+        pv = new int[MoveList.MAX_PLY][MoveList.MAX_PLY];
+        pvLengths = new int[MoveList.MAX_PLY];
+        multiPv = 1;
+        prunings = new long[Pruning.values().length];
+        this.splitter = splitter;
+    }
+
+    /**
+     * Returns true if this searcher is deterministic, false otherwise.
+     *
+     * @return true if this searcher is deterministic, false otherwise
+     */
+    public boolean isDeterministic() {
+        return deferred != null;
+    }
+
+    /**
+     * Sets whether this searcher is deterministic. A deterministic searcher
+     * makes the transposition table stores and move ordering cutoffs of
+     * each pass over the root only once the pass ends, so a node never sees
+     * what another node of the same pass found. Transpositions within a pass
+     * are searched again, so it searches more nodes than a searcher that
+     * stores results at once, but its result does not depend on the order
+     * the nodes of a pass are searched in.
+     *
+     * @param deterministic  whether this searcher is deterministic
+     */
+    public void setDeterministic(boolean deterministic) {
+        deferred = deterministic ? new DeferredWrites() : null;
+    }
+
+    /**
+     * Sets the parallel search that searches the younger brothers of the
+     * nodes of this deterministic searcher, and the place in its tree of
+     * what this searcher searches.
+     *
+     * @param splitter  the parallel search, or null to search serially
+     * @param node      the place in the tree of parallel searches, or null
+     */
+    void setSplitter(YoungBrothersWait splitter, YoungBrothersWait.Node node) {
+        this.splitter = splitter;
+        this.node = node;
+    }
+
+    /**
+     * Returns the number of root moves this searcher finds exact values and
+     * principal variations for.
+     *
+     * @return the number of lines searched for
+     */
+    public int getMultiPv() {
+        return multiPv;
+    }
+
+    /**
+     * Sets the number of root moves this searcher finds exact values and
+     * principal variations for, the best first. A number greater than the
+     * number of legal moves means every move. Finding more lines costs more,
+     * since fewer root moves can be cut off, but far less than a separate
+     * search for each line.
+     *
+     * @param  multiPv  the number of lines to search for
+     * @throws IllegalArgumentException if multiPv is less than 1
+     */
+    public void setMultiPv(int multiPv) {
+        if (multiPv < 1) {
+            throw new IllegalArgumentException("Number of lines must be at least 1.");
+        }
+        this.multiPv = multiPv;
+    }
+
+    /**
+     * Returns the listener told about each iteration this searcher completes,
+     * or null if there is none.
+     *
+     * @return the search listener of this searcher, or null
+     */
+    public SearchListener getListener() {
+        return listener;
+    }
+
+    /**
+     * Sets the listener to tell about each iteration this searcher completes,
+     * with the statistics of the search right after it. The listener is
+     * called by the searching thread.
+     *
+     * @param listener  the search listener, or null for none
+     */
+    public void setListener(SearchListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Starts a new search for the player of the given color at the current
+     * board state. Generates the root moves, with the best move stored in the
+     * transposition table first, clears the stopped flag, the deadline, the
+     * node limit, and the statistics, and ages the history of the move
+     * ordering.
+     *
+     * @param  color  the color of the player to move
+     * @return        the number of legal moves at the root
+     */
+    public int start(Piece.Color color) {
+        stopped = false;
+        hasDeadline = false;
+        nodeLimit = 0;
+        completed = false;
+        nodes = 0;
+        quiescence.clearCounts();
+        Arrays.fill(prunings, 0);
+        tableProbes = 0;
+        tableHits = 0;
+        expandedNodes = 0;
+        cutoffs = 0;
+        firstMoveCutoffs = 0;
+        evaluations = 0;
+        moveGenerations = 0;
+        completedDepth = 0;
+        startTime = System.nanoTime();
+        if (deferred != null) {
+            deferred.clear();
+        }
+        ordering.newSearch();
+        rootCount = MoveGenerator.generate(board.getPosition(), color.getIndex(), true, rootMoves);
+        int ttMove = TranspositionTable.move(table.probe(board.hash()));
+        for (int i = 0; i < rootCount; i++) {
+            rootValues[i] = -Scores.INFINITY;
+            if (Moves.squares(rootMoves[i]) == ttMove) {
+                int move = rootMoves[i];
+                System.arraycopy(rootMoves, 0, rootMoves, 1, i);
+                rootMoves[0] = move;
+            }
+        }
+        for (int i = 0; i < rootCount; i++) {
+            rootPvs[i][0] = rootMoves[i];
+            rootPvLengths[i] = 1;
+        }
+        return rootCount;
+    }
+
+    /**
+     * Searches every root move to the given depth and returns the value of
+     * the root for the given color. If the search completes, the value of each
+     * root move is kept and the root moves are reordered by value. If the
+     * search is stopped first, the results of the last completed iteration
+     * are kept instead and Scores.NONE is returned.
+     *
+     * After the first iteration, the root is first searched with an
+     * aspiration window around the value of the last iteration, which cuts
+     * off more of the tree than an infinite window. If the value falls
+     * outside the window, the window is widened on that side and the root is
+     * searched again. A mate score is not worth a window, since the next
+     * iteration may well find a different mate, and neither is a search for
+     * more than one line, whose other lines fall below the window.
+     *
+     * Each iteration is recorded as a flight recorder event when enabled.
+     *
+     * @param  color  the color of the player to move
+     * @param  depth  the depth to search to, from 1 to MAX_DEPTH
+     * @return        the value of the root, or Scores.NONE if the search was
+     *                stopped
+     */
+    public int searchRoot(Piece.Color color, int depth) {
+        IterationEvent event = new IterationEvent();
+        if (!event.isEnabled()) {
+            return searchAspiration(color, depth);
+        }
+        SearchStats before = getStats();
+        event.begin();
+        int value = searchAspiration(color, depth);
+        event.end();
+        if (event.shouldCommit()) {
+            event.depth = depth;
+            event.completed = value != Scores.NONE;
+            event.score = value;
+            event.setCounts(before, getStats());
+            event.commit();
+        }
+        return value;
+    }
+
+    /**
+     * Searches every root move to the given depth with aspiration windows, as
+     * described by searchRoot, and returns the value of the root for the
+     * given color, or Scores.NONE if the search was stopped.
+     *
+     * @param  color  the color of the player to move
+     * @param  depth  the depth to search to, at least 1
+     * @return        the value of the root, or Scores.NONE if the search was
+     *                stopped
+     */
+    private int searchAspiration(Piece.Color color, int depth) {
+        int last = rootValues[0];
+        if (Scores.isMate(last) || multiPv > 1) {
+            return searchRoot(color, depth, -Scores.INFINITY, Scores.INFINITY);
+        }
+        int delta = ASPIRATION_WINDOW;
+        int alpha = last - delta;
+        int beta = last + delta;
+        while (true) {
+            int value = searchRoot(color, depth, alpha, beta);
+            if (value == Scores.NONE) {
+                return value;
+            } else if (value <= alpha && alpha > -Scores.INFINITY) {
+                alpha = Math.max(value - delta, -Scores.INFINITY);
+            } else if (value >= beta && beta < Scores.INFINITY) {
+                beta = Math.min(value + delta, Scores.INFINITY);
+            } else {
+                return value;
+            }
+            delta *= 2;
+        }
+    }
+
+    /**
+     * Searches every root move to the given depth with the given window and
+     * returns the value of the root for the given color. The results are only
+     * kept if the value is inside the window, since a value outside it is
+     * only a bound. Returns Scores.NONE if the search is stopped.
+     *
+     * Each of the first moves, one per line, is searched with the full
+     * window. Every later move only has to beat the worst of the best lines
+     * found so far, so that is what the bottom of its window is raised to,
+     * and a move that beats it is one of the lines, with an exact value.
+     *
+     * @param  color  the color of the player to move
+     * @param  depth  the depth to search to, at least 1
+     * @param  alpha  the alpha value for alpha-beta pruning
+     * @param  beta   the beta value for alpha-beta pruning
+     * @return        the value of the root, or Scores.NONE if the search was
+     *                stopped
+     */
+    private int searchRoot(Piece.Color color, int depth, int alpha, int beta) {
+        int lines = Math.min(multiPv, rootCount);
+        int best = -Scores.INFINITY;
+        for (int i = 0; i < rootCount; i++) {
+            int floor = i < lines ? alpha : Math.max(alpha, lineValues[lines - 1]);
+            int value = searchPrincipalVariation(color, 1, depth, floor, beta, rootMoves[i],
+                                                 i < lines, 0);
+            if (stopped) {
+                if (deferred != null) {
+                    deferred.clear();
+                }
+                return Scores.NONE;
+            }
+            iterationValues[i] = value;
+            keepLineValue(value, Math.min(i, lines), lines);
+            iterationPvs[i][0] = rootMoves[i];
+            iterationPvLengths[i] = 1;
+            if (value > floor && value < beta) {
+                System.arraycopy(pv[1], 0, iterationPvs[i], 1, pvLengths[1]);
+                iterationPvLengths[i] += pvLengths[1];
+            }
+            best = Math.max(best, value);
+            if (best >= beta) {
+                break;
+            }
+        }
+        if (deferred != null) {
+            deferred.apply(table, ordering);
+        }
+        if ((best <= alpha && alpha > -Scores.INFINITY)
+                || (best >= beta && beta < Scores.INFINITY)) {
+            return best;
+        }
+        System.arraycopy(iterationValues, 0, rootValues, 0, rootCount);
+        completed = true;
+        completedDepth = depth;
+        int[][] pvs = rootPvs;
+        rootPvs = iterationPvs;
+        iterationPvs = pvs;
+        int[] lengths = rootPvLengths;
+        rootPvLengths = iterationPvLengths;
+        iterationPvLengths = lengths;
+        sortRoot();
+        table.store(board.hash(), rootMoves[0], best, 0, depth, TranspositionTable.EXACT);
+        if (listener != null) {
+            listener.iterationCompleted(getStats());
+        }
+        return best;
+    }
+
+    /**
+     * Returns the number of legal moves at the root.
+     *
+     * @return the number of legal moves at the root
+     */
+    @Override
+    public int rootCount() {
+        return rootCount;
+    }
+
+    /**
+     * Returns the root move at the given index, in order of the values found
+     * by the last completed iteration.
+     *
+     * @param  index  the index of the root move
+     * @return        the packed root move at the given index
+     */
+    @Override
+    public int rootMove(int index) {
+        return rootMoves[index];
+    }
+
+    /**
+     * Adds the given value of a root move to the best values of the current
+     * iteration if it is one of them, dropping the worst of them if there
+     * are already as many as there are lines. Once every line has a value,
+     * the last of them is the value the moves still to be searched must
+     * beat.
+     *
+     * @param value  the value of the root move just searched
+     * @param kept   the number of best values kept so far
+     * @param lines  the number of lines
+     */
+    private void keepLineValue(int value, int kept, int lines) {
+        int i = Math.min(kept, lines - 1);
+        if (kept == lines && value <= lineValues[i]) {
+            return;
+        }
+        for (; i > 0 && lineValues[i - 1] < value; i--) {
+            lineValues[i] = lineValues[i - 1];
+        }
+        lineValues[i] = value;
+    }
+
+    /**
+     * Returns the value found for the root move at the given index by the
+     * last completed iteration. The values of as many of the best moves as
+     * there are lines are exact; the others are upper bounds.
+     *
+     * @param  index  the index of the root move
+     * @return        the value of the root move at the given index
+     */
+    @Override
+    public int rootValue(int index) {
+        return rootValues[index];
+    }
+
+    /**
+     * Returns the principal variation found for the root move at the given
+     * index by the last completed iteration: the move followed by the moves
+     * both players are expected to make after it. Only the variations of as
+     * many of the best moves as there are lines go beyond the move itself.
+     *
+     * @param  index  the index of the root move
+     * @return        the packed moves of the principal variation
+     */
+    public int[] principalVariation(int index) {
+        return Arrays.copyOf(rootPvs[index], rootPvLengths[index]);
+    }
+
+    /**
+     * Returns the board this searcher searches from.
+     *
+     * @return the board this searcher searches from
+     */
+    public Board getBoard() {
+        return board;
+    }
+
+    /**
+     * Returns the number of nodes searched since the start of the current
+     * search.
+     *
+     * @return the number of nodes searched in the current search
+     */
+    public long getNodes() {
+        return nodes + quiescence.getNodes();
+    }
+
+    /**
+     * Returns the number of times the given pruning technique has been used
+     * since the start of the current search.
+     *
+     * @param  pruning  the pruning technique
+     * @return          the number of times the technique has been used
+     */
+    public long getPruningCount(Pruning pruning) {
+        return prunings[pruning.ordinal()];
+    }
+
+    /**
+     * Returns the statistics of the current search so far: the depth, value,
+     * and principal variation of its last completed iteration, and the counts
+     * of the work done since it started, including any iteration in progress
+     * or stopped. A resumed search counts from its original start.
+     *
+     * @return the statistics of the current search
+     */
+    public SearchStats getStats() {
+        boolean searched = completedDepth > 0;
+        return new SearchStats(completedDepth, searched ? rootValues[0] : Scores.NONE,
+                               searched ? principalVariation(0) : new int[0], getNodes(),
+                               System.nanoTime() - startTime, tableProbes, tableHits,
+                               expandedNodes, cutoffs, firstMoveCutoffs,
+                               evaluations + quiescence.getEvaluations(),
+                               moveGenerations + quiescence.getMoveGenerations());
+    }
+
+    /**
+     * Makes the current search stop itself once System.nanoTime reaches the
+     * given value. The clock is only read every few nodes, so the search may
+     * run slightly past the deadline.
+     *
+     * @param deadline  the value of System.nanoTime to stop at
+     */
+    public void setDeadline(long deadline) {
+        this.deadline = deadline;
+        hasDeadline = true;
+    }
+
+    /**
+     * Makes the current search stop itself once it has searched the given
+     * number of nodes, counted from its start. The count is only checked
+     * every few nodes, so the search may run slightly past the limit. The
+     * limit never stops the first iteration, so that there are always root
+     * values to select a move from.
+     *
+     * @param  nodeLimit  the number of nodes to stop at
+     * @throws IllegalArgumentException if nodeLimit is less than 1
+     */
+    public void setNodeLimit(long nodeLimit) {
+        if (nodeLimit < 1) {
+            throw new IllegalArgumentException("Node limit must be at least 1.");
+        }
+        this.nodeLimit = nodeLimit;
+    }
+
+    /**
+     * Stops the current search as soon as possible. Safe to call from any
+     * thread.
+     */
+    public void stop() {
+        stopped = true;
+    }
+
+    /**
+     * Resumes a stopped search, so that iterative deepening can continue
+     * from the results of its last completed iteration. Clears the stopped
+     * flag, the deadline, and the node limit but keeps the root moves, their
+     * values, and the counts of the current search.
+     */
+    public void resume() {
+        stopped = false;
+        hasDeadline = false;
+        nodeLimit = 0;
+    }
+
+    /**
+     * Returns true if the current search has been stopped, false otherwise.
+     *
+     * @return true if the current search has been stopped, false otherwise
+     */
+    public boolean isStopped() {
+        return stopped;
+    }
+
+    /**
+     * Returns the value of the current board state for the given color, with
+     * a quiescence search at the leaves. The value is looked up in the
+     * transposition table if the state has been searched deep enough before,
+     * and stored in it otherwise. Returns 0 without storing anything if the
+     * search is stopped.
+     *
+     * The node is cut off at once if even mating at the next ply could not
+     * raise the value to alpha, or being mated right here could not lower it
+     * to beta, which happens once a shorter mate has been found elsewhere.
+     *
+     * @param  color  the color of the player to move
+     * @param  ply    the number of moves made since the start of the search
+     * @param  depth  the depth to search to
+     * @param  alpha  the alpha value for alpha-beta pruning
+     * @param  beta   the beta value for alpha-beta pruning
+     * @return        the value of the current board state for the given color
+     */
+    private int negamax(Piece.Color color, int ply, int depth, int alpha, int beta) {
+        if ((++nodes & LIMIT_CHECK_MASK) == 0 && limitReached()) {
+            stopped = true;
+        }
+        if (aborted()) {
+            return 0;
+        }
+        pvLengths[ply] = 0;
+        alpha = Math.max(alpha, -Scores.mateIn(ply));
+        beta = Math.min(beta, Scores.mateIn(ply + 1));
+        if (alpha >= beta) {
+            return alpha;
+        }
+        if (depth == 0) {
+            return quiescence.search(board, color, ply, alpha, beta);
+        }
+        long hash = board.hash();
+        long entry = table.probe(hash);
+        tableProbes++;
+        if (entry != 0) {
+            tableHits++;
+        }
+        if (entry != 0 && TranspositionTable.depth(entry) >= depth) {
+            int score = TranspositionTable.score(entry, ply);
+            int bound = TranspositionTable.bound(entry);
+            if (bound == TranspositionTable.EXACT
+                    || (bound == TranspositionTable.LOWER && score >= beta)
+                    || (bound == TranspositionTable.UPPER && score <= alpha)) {
+                return score;
+            }
+        }
+        Position position = board.getPosition();
+        boolean inCheck = position.inCheck(color.getIndex());
+        // Only a null window is searched with beta just above alpha
+        boolean nullWindow = beta == alpha + 1;
+        int staticValue = Scores.NONE;
+        if (nullWindow && !inCheck) {
+            staticValue = (++evaluations & EvaluationEvent.SAMPLE_MASK) == 0
+                    ? EvaluationEvent.evaluate(heuristic, board, color, ply)
+                    : heuristic.calculateValue(position, color);
+            // A heuristic value says nothing about a mate, so a mate bound is never pruned to
+            if (options.isReverseFutilityPruning() && depth <= options.getReverseFutilityMaxDepth()
+                    && !Scores.isMate(beta)
+                    && staticValue - options.getReverseFutilityMargin() * depth >= beta) {
+                prunings[Pruning.REVERSE_FUTILITY.ordinal()]++;
+                return staticValue;
+            }
+            if (options.isRazoring() && depth <= options.getRazoringMaxDepth()
+                    && staticValue + options.getRazoringMargin() * depth <= alpha) {
+                int value = quiescence.search(board, color, ply, alpha, beta);
+                if (value <= alpha) {
+                    prunings[Pruning.RAZORING.ordinal()]++;
+                    return value;
+                }
+            }
+            if (options.isNullMovePruning() && depth >= options.getNullMoveMinDepth()
+                    && staticValue >= beta && !Scores.isMate(beta)) {
+                int value = searchNullMove(color, ply, depth, beta);
+                if (aborted()) {
+                    return 0;
+                } else if (value >= beta) {
+                    prunings[Pruning.NULL_MOVE.ordinal()]++;
+                    return value;
+                }
+            }
+        }
+        // Quiet moves cannot raise the value of a futile node to alpha
+        int futilityValue = staticValue + options.getFutilityMargin() * depth;
+        boolean futile = staticValue != Scores.NONE && options.isFutilityPruning()
+                && depth <= options.getFutilityMaxDepth() && futilityValue <= alpha;
+        int count = (++moveGenerations & MoveGenerationEvent.SAMPLE_MASK) == 0
+                ? MoveGenerationEvent.generate(moveList, position, color.getIndex(), ply, false)
+                : moveList.generate(position, color.getIndex(), ply);
+        if (count == 0) {
+            // Only reachable after a null move, since moves are checked for ending the game
+            return inCheck ? -Scores.mateIn(ply) : 0;
+        }
+        ordering.order(moveList, ply, color.getIndex(), TranspositionTable.move(entry));
+        expandedNodes++;
+        int best = -Scores.INFINITY;
+        int bestMove = Moves.NONE;
+        // The younger brothers searched in parallel once the eldest has been, or null
+        YoungBrothersWait.Brother[] brothers = null;
+        int i = 0;
+        for (; i < count; i++) {
+            int move = moveList.move(ply, i);
+            if (futile && i > 0 && isPruned(move, color)) {
+                prunings[Pruning.FUTILITY.ordinal()]++;
+                best = Math.max(best, futilityValue);
+                continue;
+            }
+            int window = Math.max(alpha, best);
+            int value;
+            if (i > 0 && splitter != null && depth >= YoungBrothersWait.MIN_SPLIT_DEPTH
+                    && (brothers != null || i < count - 1)) {
+                if (brothers == null || brothers[i].getAlpha() != window) {
+                    // The brothers forked so far were given a window an earlier brother raised
+                    cancelBrothers(brothers, i, count);
+                    brothers = forkBrothers(brothers, color, ply, depth, window, beta, i, count,
+                                            futile, inCheck);
+                }
+                value = joinBrother(brothers[i], ply);
+                brothers[i] = null;
+            } else {
+                value = searchPrincipalVariation(color, ply + 1, depth, window, beta, move,
+                                                 i == 0, reduction(ply, depth, i, move, inCheck));
+            }
+            if (aborted()) {
+                cancelBrothers(brothers, i + 1, count);
+                return 0;
+            }
+            if (bestMove == Moves.NONE || value > best) {
+                best = value;
+                bestMove = move;
+                if (value > alpha && value < beta) {
+                    pv[ply][0] = move;
+                    System.arraycopy(pv[ply + 1], 0, pv[ply], 1, pvLengths[ply + 1]);
+                    pvLengths[ply] = pvLengths[ply + 1] + 1;
+                }
+            }
+            if (best >= beta) {
+                recordCutoff(ply, color.getIndex(), move, depth);
+                cutoffs++;
+                if (i == 0) {
+                    firstMoveCutoffs++;
+                }
+                break;
+            }
+        }
+        cancelBrothers(brothers, i + 1, count);
+        if (best <= alpha) {
+            store(hash, Moves.NONE, best, ply, depth, TranspositionTable.UPPER);
+        } else {
+            store(hash, bestMove, best, ply, depth,
+                  best >= beta ? TranspositionTable.LOWER : TranspositionTable.EXACT);
+        }
+        return best;
+    }
+
+    /**
+     * Returns true if the current search has been stopped or, for a part of
+     * a parallel search, cancelled, false otherwise.
+     *
+     * @return true if the search has been stopped or cancelled
+     */
+    private boolean aborted() {
+        return stopped || (node != null && node.isCancelled());
+    }
+
+    /**
+     * Returns true if the given move by the player of the given color is
+     * pruned at a node that futility pruning applies to: a quiet move that
+     * does not give check, after the first move.
+     *
+     * @param  move   the packed move
+     * @param  color  the color of the player making the move
+     * @return        true if the move is pruned, false otherwise
+     */
+    private boolean isPruned(int move, Piece.Color color) {
+        return !Moves.isCapture(move) && !Moves.isPromotion(move) && !givesCheck(move, color);
+    }
+
+    /**
+     * Returns the number of plies the search of the given move at the given
+     * index of its node is reduced by at first, by late move reductions.
+     *
+     * @param  ply      the number of moves made since the start of the search
+     * @param  depth    the depth left at the node
+     * @param  index    the index of the move among the moves of the node
+     * @param  move     the packed move
+     * @param  inCheck  whether the player to move is in check
+     * @return          the number of plies to reduce the search of the move by
+     */
+    private int reduction(int ply, int depth, int index, int move, boolean inCheck) {
+        if (index >= options.getLateMoveMinIndex() && depth >= options.getLateMoveMinDepth()
+                && options.isLateMoveReductions() && !inCheck && !Moves.isCapture(move)
+                && !Moves.isPromotion(move) && !ordering.isKiller(ply, move)) {
+            // Leave at least one ply to search after the move
+            return Math.min(options.lateMoveReduction(depth, index), depth - 2);
+        }
+        return 0;
+    }
+
+    /**
+     * Forks a task for each move of the node at the given ply from the given
+     * index on that is not pruned, searching it as the serial loop over the
+     * moves would with the given window. The moves of the node must have been
+     * ordered, and the board must stay at the node until every task has been
+     * joined or cancelled.
+     *
+     * @param  brothers  the tasks of the node so far, or null if there are none
+     * @param  color     the color of the player to move
+     * @param  ply       the number of moves made since the start of the search
+     * @param  depth     the depth left at the node
+     * @param  alpha     the alpha value to search each move with
+     * @param  beta      the beta value for alpha-beta pruning
+     * @param  from      the index of the first move to fork a task for
+     * @param  count     the number of moves of the node
+     * @param  futile    whether futility pruning applies to the node
+     * @param  inCheck   whether the player to move is in check
+     * @return           the tasks of the node, indexed by move, null for moves
+     *                   without one
+     */
+    private YoungBrothersWait.Brother[] forkBrothers(YoungBrothersWait.Brother[] brothers,
+                                                      Piece.Color color, int ply, int depth,
+                                                      int alpha, int beta, int from, int count,
+                                                      boolean futile, boolean inCheck) {
+        if (brothers == null) {
+            brothers = new YoungBrothersWait.Brother[count];
+        }
+        // Forked last first, so that the owner of the node pops the next one it needs first
+        for (int i = count - 1; i >= from; i--) {
+            int move = moveList.move(ply, i);
+            if (!futile || !isPruned(move, color)) {
+                brothers[i] = splitter.fork(this, node, color, ply, depth, alpha, beta, move,
+                                            reduction(ply, depth, i, move, inCheck));
+            }
+        }
+        return brothers;
+    }
+
+    /**
+     * Waits for the given task to finish and returns the value it found. Its
+     * work is then taken on as if this searcher had done it: its nodes are
+     * counted, its deferred writes follow those made so far, and its
+     * principal variation becomes that of the next ply.
+     *
+     * @param  brother  the task to join
+     * @param  ply      the ply of the node the task was forked from
+     * @return          the value of the move of the task
+     */
+    private int joinBrother(YoungBrothersWait.Brother brother, int ply) {
+        brother.join();
+        nodes += brother.getNodes();
+        deferred.addAll(brother.getWrites());
+        pvLengths[ply + 1] = brother.getVariation(pv[ply + 1]);
+        splitter.release(brother);
+        return brother.getValue();
+    }
+
+    /**
+     * Cancels the given tasks from the given index on and waits for them to
+     * finish, discarding what they found but counting their nodes.
+     *
+     * @param brothers  the tasks of a node, or null if there are none
+     * @param from      the index of the first task to cancel
+     * @param count     the number of moves of the node
+     */
+    private void cancelBrothers(YoungBrothersWait.Brother[] brothers, int from, int count) {
+        if (brothers == null) {
+            return;
+        }
+        for (int i = from; i < count; i++) {
+            if (brothers[i] != null) {
+                brothers[i].cancel();
+            }
+        }
+        for (int i = from; i < count; i++) {
+            if (brothers[i] != null) {
+                brothers[i].join();
+                nodes += brothers[i].getNodes();
+                splitter.release(brothers[i]);
+                brothers[i] = null;
+            }
+        }
+    }
+
+    /**
+     * Stores a search result in the transposition table, or keeps it for the
+     * end of the pass if this searcher is deterministic, with the same
+     * parameters as TranspositionTable.store.
+     *
+     * @param hash   the Zobrist hash of the searched position
+     * @param move   the best packed move found, or Moves.NONE
+     * @param score  the score found, relative to the root
+     * @param ply    the ply the position was searched at
+     * @param depth  the depth searched, at least 1
+     * @param bound  the bound type of the score
+     */
+    private void store(long hash, int move, int score, int ply, int depth, int bound) {
+        if (deferred != null) {
+            deferred.store(hash, move, score, ply, depth, bound);
+        } else {
+            table.store(hash, move, score, ply, depth, bound);
+        }
+    }
+
+    /**
+     * Records a cutoff in the move ordering, or keeps it for the end of the
+     * pass if this searcher is deterministic, with the same parameters as
+     * MoveOrdering.recordCutoff.
+     *
+     * @param ply    the ply of the cutoff
+     * @param color  the bitboard index of the color of the player who moved
+     * @param move   the packed move that caused the cutoff
+     * @param depth  the depth left at the node of the cutoff
+     */
+    private void recordCutoff(int ply, int color, int move, int depth) {
+        if (deferred != null) {
+            deferred.recordCutoff(ply, color, move, depth);
+        } else {
+            ordering.recordCutoff(ply, color, move, depth);
+        }
+    }
+
+    /**
+     * Sets this searcher up to search a brother forked from a node of
+     * another searcher of the same parallel search.
+     *
+     * @param position  the position of the node the brother was forked from
+     * @param node      the place of the brother in the tree of parallel
+     *                  searches
+     * @param writes    the list to keep the writes of the brother in
+     */
+    void prepare(Position position, YoungBrothersWait.Node node, DeferredWrites writes) {
+        board.getPosition().set(position);
+        this.node = node;
+        deferred = writes;
+    }
+
+    /**
+     * Finds the value of the given move, not the first of its node, exactly as
+     * the loop over the moves of the node would.
+     *
+     * @param  color      the color of the player making the move
+     * @param  ply        the ply of the node of the move
+     * @param  depth      the depth left at the node
+     * @param  alpha      the alpha value for alpha-beta pruning
+     * @param  beta       the beta value for alpha-beta pruning
+     * @param  move       the packed move to make
+     * @param  reduction  the number of plies to reduce the search of the move
+     *                    by at first
+     * @return            the value of the move for the player making it
+     */
+    int searchBrother(Piece.Color color, int ply, int depth, int alpha, int beta, int move,
+                      int reduction) {
+        return searchPrincipalVariation(color, ply + 1, depth, alpha, beta, move, false,
+                                        reduction);
+    }
+
+    /**
+     * Returns the principal variation of the node searched last at the given
+     * ply.
+     *
+     * @param  ply  the ply of the node
+     * @return      the packed moves of the principal variation
+     */
+    int[] variation(int ply) {
+        return Arrays.copyOf(pv[ply], pvLengths[ply]);
+    }
+
+    /**
+     * Returns true if the current search has reached its deadline or, after
+     * its first iteration, its node limit, false otherwise.
+     *
+     * @return true if the current search has reached a limit, false otherwise
+     */
+    private boolean limitReached() {
+        return (hasDeadline && System.nanoTime() - deadline >= 0)
+                || (nodeLimit > 0 && completed && getNodes() >= nodeLimit);
+    }
+
+    /**
+     * Returns the value for the player of the given color of passing instead
+     * of moving, found by a search reduced by the null-move reduction with a
+     * null window just below beta. If even passing is worth at least beta,
+     * some move almost certainly is too, so the node can be cut off. Returns
+     * -Scores.INFINITY without passing if the player only has pawns and a
+     * king, where passing may be better than every move, or if the last move
+     * was a null move.
+     *
+     * @param  color  the color of the player to move
+     * @param  ply    the number of moves made since the start of the search
+     * @param  depth  the depth left at the node
+     * @param  beta   the beta value for alpha-beta pruning
+     * @return        the value of passing for the player of the given color
+     */
+    private int searchNullMove(Piece.Color color, int ply, int depth, int beta) {
+        Position position = board.getPosition();
+        int us = color.getIndex();
+        if (position.lastMove() == Moves.NONE
+                || position.count(us) == position.count(us, Position.PAWN) + 1) {
+            return -Scores.INFINITY;
+        }
+        int reducedDepth = Math.max(0, depth - 1 - options.getNullMoveReduction());
+        position.makeNullMove();
+        int value = -negamax(oppositeColor(color), ply + 1, reducedDepth, -beta, 1 - beta);
+        position.unmakeNullMove();
+        // A mate found after passing is not a mate the player can force
+        return Math.min(value, beta);
+    }
+
+    /**
+     * Returns true if the given move by the player of the given color gives
+     * check, false otherwise.
+     *
+     * @param  move   the packed move
+     * @param  color  the color of the player making the move
+     * @return        true if the move gives check, false otherwise
+     */
+    private boolean givesCheck(int move, Piece.Color color) {
+        Position position = board.getPosition();
+        position.makeMove(move);
+        boolean check = position.inCheck(Position.opposite(color.getIndex()));
+        position.unmakeMove();
+        return check;
+    }
+
+    /**
+     * Finds the value of the given move for the player of the given color
+     * with principal variation search. The first move of a node is searched
+     * with the full window. Any other move is expected to be worse, so it is
+     * first searched with a null window just above alpha, which only proves
+     * whether the move is better than alpha and cuts off much more. A late
+     * move may also be searched to a reduced depth first. If the move turns
+     * out better than alpha anyway, it is searched again to the full depth,
+     * and then with the full window.
+     *
+     * @param  color      the color of the player making the move
+     * @param  ply        the number of moves made since the start of the
+     *                    search, including this one
+     * @param  depth      the depth left to search before making the move
+     * @param  alpha      the alpha value for alpha-beta pruning
+     * @param  beta       the beta value for alpha-beta pruning
+     * @param  move       the packed move to make
+     * @param  first      whether the move is the first move of its node
+     * @param  reduction  the number of plies to reduce the search of the move
+     *                    by at first
+     * @return            the value of the move for the player making it
+     */
+    private int searchPrincipalVariation(Piece.Color color, int ply, int depth, int alpha,
+                                         int beta, int move, boolean first, int reduction) {
+        if (first) {
+            return searchMove(color, ply, depth, alpha, beta, move, 0);
+        }
+        int value = searchMove(color, ply, depth, alpha, alpha + 1, move, reduction);
+        if (value > alpha && reduction > 0 && !aborted()) {
+            value = searchMove(color, ply, depth, alpha, alpha + 1, move, 0);
+        }
+        if (value > alpha && value < beta && !aborted()) {
+            value = searchMove(color, ply, depth, alpha, beta, move, 0);
+        }
+        return value;
+    }
+
+    /**
+     * Makes the given move for the player of the given color, finds its value
+     * for that player, and undoes it. The search after the move is reduced by
+     * the given number of plies, unless the move gives check.
+     *
+     * @param  color      the color of the player making the move
+     * @param  ply        the number of moves made since the start of the
+     *                    search, including this one
+     * @param  depth      the depth left to search before making the move
+     * @param  alpha      the alpha value for alpha-beta pruning
+     * @param  beta       the beta value for alpha-beta pruning
+     * @param  move       the packed move to make
+     * @param  reduction  the number of plies to reduce the search by
+     * @return            the value of the move for the player making it
+     */
+    private int searchMove(Piece.Color color, int ply, int depth, int alpha, int beta, int move,
+                           int reduction) {
+        Position position = board.getPosition();
+        Piece.Color opponent = oppositeColor(color);
+        pvLengths[ply] = 0;
+        position.makeMove(move);
+        int value = (++moveGenerations & MoveGenerationEvent.SAMPLE_MASK) == 0
+                ? MoveGenerationEvent.terminalValue(position, opponent.getIndex(), ply)
+                : terminalValue(position, opponent.getIndex(), ply);
+        if (value == Scores.NONE) {
+            if (reduction > 0 && position.inCheck(opponent.getIndex())) {
+                reduction = 0;
+            }
+            value = -negamax(opponent, ply, depth - 1 - reduction, -beta, -alpha);
+        }
+        position.unmakeMove();
+        return value;
+    }
+
+    /**
+     * Returns the value of the given position for the player who just moved
+     * if the game is over, or Scores.NONE if it is not. Checkmating the
+     * opponent is worth the mate score of the ply of the move, and
+     * stalemating the opponent, leaving only the kings, or repeating the last
+     * two moves of each player a third time is worth 0.
+     *
+     * @param  position  the position after the move
+     * @param  opponent  the bitboard index of the color of the player to move next
+     * @param  ply       the number of moves made since the start of the search,
+     *                   including the move
+     * @return           the value of the position for the player who just moved,
+     *                   or Scores.NONE if the game is not over
+     */
+    static int terminalValue(Position position, int opponent, int ply) {
+        if (MoveGenerator.countLegalMoves(position, opponent) == 0) {
+            return position.inCheck(opponent) ? Scores.mateIn(ply) : 0;
+        } else if (Long.bitCount(position.occupied()) <= 2 || position.lastThreeMovesSame()) {
+            return 0;
+        }
+        return Scores.NONE;
+    }
+
+    /**
+     * Sorts the root moves, their values, and their principal variations in
+     * place by value in descending order. Moves with equal values keep their
+     * relative order.
+     */
+    private void sortRoot() {
+        for (int i = 1; i < rootCount; i++) {
+            int move = rootMoves[i];
+            int value = rootValues[i];
+            int[] line = rootPvs[i];
+            int length = rootPvLengths[i];
+            int j = i - 1;
+            for (; j >= 0 && rootValues[j] < value; j--) {
+                rootMoves[j + 1] = rootMoves[j];
+                rootValues[j + 1] = rootValues[j];
+                rootPvs[j + 1] = rootPvs[j];
+                rootPvLengths[j + 1] = rootPvLengths[j];
+            }
+            rootMoves[j + 1] = move;
+            rootValues[j + 1] = value;
+            rootPvs[j + 1] = line;
+            rootPvLengths[j + 1] = length;
+        }
+    }
+}
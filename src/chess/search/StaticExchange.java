@@ -0,0 +1,89 @@
+package chess.search;
+
+import chess.bitboard.*;
+import chess.pieces.*;
+
+import static chess.bitboard.Bitboards.*;
+import static chess.bitboard.Position.*;
+
+/**
+ * Static exchange evaluation, which finds the material a capture wins or
+ * loses once every piece attacking its target square has recaptured in turn,
+ * cheapest piece first, without making any moves. Either side may stop
+ * recapturing when continuing would lose material. Pieces behind an attacker
+ * on the same line join in once the attacker has moved.
+ */
+public final class StaticExchange {
+    /**
+     * The material value of each piece type, indexed by bitboard piece type.
+     */
+    private static final int[] VALUES = {
+            Pawn.VALUE, Knight.VALUE, Bishop.VALUE, Rook.VALUE, Queen.VALUE, King.VALUE
+    };
+
+    /**
+     * The most captures an exchange on a single square can have, and the
+     * length of the buffer evaluate needs.
+     */
+    public static final int MAX_CAPTURES = 32;
+
+    private StaticExchange() {}
+
+    /**
+     * Returns the material value of the given piece type.
+     *
+     * @param  type  the bitboard piece type
+     * @return       the material value of the piece type
+     */
+    public static int value(int type) {
+        return VALUES[type];
+    }
+
+    /**
+     * Returns the material the given move gains for the player making it, in
+     * the units of piece values, once every recapture on its end square worth
+     * making has been made. Promotions count the value gained by promoting.
+     * The gain of each capture in turn is kept in the given buffer, so that
+     * nothing is allocated on this hot path.
+     *
+     * @param  position  the position the move is made in
+     * @param  move      the packed move
+     * @param  gain      a buffer of at least MAX_CAPTURES values, overwritten
+     * @return           the material the move gains, negative if it loses material
+     */
+    public static int evaluate(Position position, int move, int[] gain) {
+        int from = Moves.from(move);
+        int to = Moves.to(move);
+        int side = colorOf(position.pieceAt(from));
+        // The captured field of a quiet move is 0, the same as a pawn
+        gain[0] = Moves.isCapture(move) ? VALUES[Moves.captured(move)] : 0;
+        int attacker = Moves.piece(move);
+        if (Moves.isPromotion(move)) {
+            gain[0] += VALUES[QUEEN] - VALUES[PAWN];
+            attacker = QUEEN;
+        }
+        long occupied = position.occupied();
+        long attackers;
+        int depth = 0;
+        do {
+            depth++;
+            side = opposite(side);
+            // What the side to recapture gains if it takes the piece that just captured
+            gain[depth] = VALUES[attacker] - gain[depth - 1];
+            occupied ^= bit(from);
+            attackers = position.attackersTo(to, side, occupied) & occupied;
+            for (attacker = PAWN; attacker < KING; attacker++) {
+                if ((attackers & position.pieces(side, attacker)) != 0) {
+                    break;
+                }
+            }
+            from = first(attackers & position.pieces(side, attacker));
+        } while (attackers != 0 && depth < MAX_CAPTURES - 1);
+        // The last capture stored was never made, so each side now chooses
+        // between stopping and recapturing, from the last capture back
+        while (--depth > 0) {
+            gain[depth - 1] = -Math.max(-gain[depth - 1], gain[depth]);
+        }
+        return gain[0];
+    }
+}
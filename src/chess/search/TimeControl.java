@@ -0,0 +1,139 @@
+package chess.search;
+
+/**
+ * The time a search may take to select one move, either a fixed time per
+ * move or a share of the time left on a player's clock.
+ *
+ * A time control gives two limits: the optimum time a move should take, and
+ * the maximum time, when the search in progress is stopped. Since each
+ * iteration of the search takes about as long as all earlier ones together,
+ * a new iteration is only started while less than half of the optimum time
+ * has passed. The optimum time can be extended up to the maximum when the
+ * best move keeps changing between iterations.
+ */
+public final class TimeControl {
+    /**
+     * The number of moves the time left on a clock is assumed to be shared
+     * between.
+     */
+    public static final int DEFAULT_MOVES_TO_GO = 30;
+
+    /**
+     * The number of milliseconds kept back from the time left on a clock for
+     * the time spent outside the search.
+     */
+    public static final long MOVE_OVERHEAD_MILLIS = 20;
+
+    /**
+     * The number of times the optimum time a move may take at most when its
+     * best move is unstable.
+     */
+    private static final int MAX_EXTENSION = 4;
+
+    /**
+     * The number of milliseconds a move should take.
+     */
+    private final long optimumMillis;
+
+    /**
+     * The number of milliseconds after which the search is stopped.
+     */
+    private final long maximumMillis;
+
+    /**
+     * Constructs a new time control with the given limits.
+     *
+     * @param optimumMillis  the time a move should take
+     * @param maximumMillis  the time after which the search is stopped
+     */
+    private TimeControl(long optimumMillis, long maximumMillis) {
+        this.optimumMillis = optimumMillis;
+        this.maximumMillis = maximumMillis;
+    }
+
+    /**
+     * Returns a time control that gives each move the given fixed time.
+     *
+     * @param  millis  the time each move may take in milliseconds
+     * @return         a time control for the given time per move
+     * @throws IllegalArgumentException if millis is less than 1
+     */
+    public static TimeControl moveTime(long millis) {
+        if (millis < 1) {
+            throw new IllegalArgumentException("Move time must be at least 1 millisecond.");
+        }
+        return new TimeControl(millis, millis);
+    }
+
+    /**
+     * Returns a time control that shares the given time left on a clock
+     * between the default number of moves to go.
+     *
+     * @param  remainingMillis  the time left on the clock in milliseconds
+     * @param  incrementMillis  the time added to the clock after each move
+     * @return                  a time control for the given clock
+     * @throws IllegalArgumentException if remainingMillis is less than 1 or
+     *                                  incrementMillis is negative
+     */
+    public static TimeControl clock(long remainingMillis, long incrementMillis) {
+        return clock(remainingMillis, incrementMillis, DEFAULT_MOVES_TO_GO);
+    }
+
+    /**
+     * Returns a time control that shares the given time left on a clock
+     * between the given number of moves to go. Each move gets its share of
+     * the time left plus most of the increment, and may be extended to a few
+     * times that, but never to more than a third of the time left.
+     *
+     * @param  remainingMillis  the time left on the clock in milliseconds
+     * @param  incrementMillis  the time added to the clock after each move
+     * @param  movesToGo        the number of moves until the next time control
+     * @return                  a time control for the given clock
+     * @throws IllegalArgumentException if remainingMillis or movesToGo is less
+     *                                  than 1 or incrementMillis is negative
+     */
+    public static TimeControl clock(long remainingMillis, long incrementMillis, int movesToGo) {
+        if (remainingMillis < 1 || incrementMillis < 0 || movesToGo < 1) {
+            throw new IllegalArgumentException("Invalid clock.");
+        }
+        long available = Math.max(1, remainingMillis - MOVE_OVERHEAD_MILLIS);
+        long maximum = Math.max(1, Math.min(available / 3 + incrementMillis, available));
+        long optimum = Math.min(available / movesToGo + incrementMillis * 3 / 4, maximum);
+        return new TimeControl(optimum, Math.min(optimum * MAX_EXTENSION, maximum));
+    }
+
+    /**
+     * Returns the number of milliseconds a move should take if its best move
+     * is stable.
+     *
+     * @return the optimum time in milliseconds
+     */
+    public long getOptimumMillis() {
+        return optimumMillis;
+    }
+
+    /**
+     * Returns the number of milliseconds after which the search in progress
+     * is stopped.
+     *
+     * @return the maximum time in milliseconds
+     */
+    public long getMaximumMillis() {
+        return maximumMillis;
+    }
+
+    /**
+     * Returns true if a new iteration of the search should be started after
+     * the given time, given how unstable the best move has been, false
+     * otherwise. An instability of 0 keeps to the optimum time, and each 1
+     * added to it adds the optimum time again, up to the maximum time.
+     *
+     * @param  elapsedMillis  the time the search has taken so far
+     * @param  instability    how often the best move has changed recently
+     * @return                true if a new iteration should be started
+     */
+    public boolean startIteration(long elapsedMillis, double instability) {
+        long limit = Math.min((long) (optimumMillis * (1 + instability)), maximumMillis);
+        return elapsedMillis * 2 < limit;
+    }
+}
@@ -0,0 +1,209 @@
+package chess.search;
+
+import chess.bitboard.*;
+
+import java.util.*;
+
+/**
+ * A fixed-size hash table of search results keyed by Zobrist hash. Each entry
+ * is two longs: the data, and the hash of its position exclusive ored with
+ * the data. A probe only returns an entry if undoing the exclusive or gives
+ * back the full hash being probed, which both verifies the position and
+ * rejects entries whose two longs were not written together.
+ *
+ * The data of an entry holds, from lowest to highest bit:
+ *
+ * <pre>
+ *  0-15  the score, as a 16-bit two's complement integer
+ * 16-27  the start and end squares of the best move, or 0 for none
+ * 28-35  the depth searched
+ * 36-37  the bound type of the score
+ * 38-43  the age of the search that stored the entry
+ * </pre>
+ *
+ * Mate scores are stored relative to the position of the entry rather than
+ * to the root of the search that stored them, since the same position can be
+ * reached at a different ply.
+ *
+ * Entries are grouped into buckets of two. The first entry of a bucket keeps
+ * the deepest result of the current search, and the second is always
+ * replaced by results that do not go in the first.
+ */
+public final class TranspositionTable {
+    /**
+     * The bound types of scores. An exact score is the value of the position,
+     * a lower bound means the position is worth at least the score, and an
+     * upper bound means the position is worth at most the score.
+     */
+    public static final int EXACT = 0;
+    public static final int LOWER = 1;
+    public static final int UPPER = 2;
+
+    /**
+     * The size of the table when no size is given, in megabytes.
+     */
+    public static final int DEFAULT_SIZE_MB = 16;
+
+    /**
+     * The number of bytes each entry takes.
+     */
+    private static final int ENTRY_BYTES = 16;
+
+    /**
+     * The hash of each entry's position exclusive ored with its data.
+     */
+    private final long[] keys;
+
+    /**
+     * The data of each entry, packed as described above.
+     */
+    private final long[] data;
+
+    /**
+     * The mask giving the index of the bucket of a hash.
+     */
+    private final int bucketMask;
+
+    /**
+     * The age of the current search, which wraps around after 63.
+     */
+    private int age;
+
+    /**
+     * Constructs a new empty transposition table that uses at most the given
+     * number of megabytes. The number of buckets is rounded down to a power
+     * of two.
+     *
+     * @param  megabytes  the maximum size of the table in megabytes
+     * @throws IllegalArgumentException if megabytes is less than 1
+     */
+    public TranspositionTable(int megabytes) {
+        if (megabytes < 1) {
+            throw new IllegalArgumentException("Table size must be at least 1 MB.");
+        }
+        long buckets = Long.highestOneBit((long) megabytes * 1024 * 1024 / (2 * ENTRY_BYTES));
+        buckets = Math.min(buckets, 1 << 29);
+        keys = new long[(int) buckets * 2];
+        data = new long[(int) buckets * 2];
+        bucketMask = (int) buckets - 1;
+    }
+
+    /**
+     * Removes every entry from this table.
+     */
+    public void clear() {
+        Arrays.fill(keys, 0);
+        Arrays.fill(data, 0);
+        age = 0;
+    }
+
+    /**
+     * Marks the start of a new search, so that entries stored by earlier
+     * searches are replaced first.
+     */
+    public void newSearch() {
+        age = (age + 1) & 63;
+    }
+
+    /**
+     * Returns the data of the entry for the given hash, or 0 if there is none.
+     *
+     * @param  hash  the Zobrist hash of the position to look up
+     * @return       the packed data of the entry, or 0 if there is none
+     */
+    public long probe(long hash) {
+        int index = ((int) hash & bucketMask) << 1;
+        for (int i = index; i < index + 2; i++) {
+            long entry = data[i];
+            if ((keys[i] ^ entry) == hash && entry != 0) {
+                return entry;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Stores a search result for the given hash. If either entry of its
+     * bucket is for the same position, the result replaces that entry, so a
+     * position never has two entries. Otherwise the result goes in the
+     * first entry if that entry was stored by an earlier search or was
+     * searched no deeper, and in the second entry if not.
+     *
+     * @param hash   the Zobrist hash of the searched position
+     * @param move   the best packed move found, or Moves.NONE
+     * @param score  the score found, relative to the root
+     * @param ply    the ply the position was searched at
+     * @param depth  the depth searched, at least 1
+     * @param bound  the bound type of the score
+     */
+    public void store(long hash, int move, int score, int ply, int depth, int bound) {
+        int index = ((int) hash & bucketMask) << 1;
+        long first = data[index];
+        if ((keys[index + 1] ^ data[index + 1]) == hash) {
+            index++;
+        } else if ((keys[index] ^ first) != hash && depth(first) > depth && age(first) == age) {
+            index++;
+        }
+        if (move == Moves.NONE && (keys[index] ^ data[index]) == hash) {
+            // Keep the best move of an earlier result for the same position
+            move = move(data[index]);
+        }
+        long entry = (Scores.toTable(score, ply) & 0xFFFFL) | (long) Moves.squares(move) << 16
+                | (long) depth << 28 | (long) bound << 36 | (long) age << 38;
+        data[index] = entry;
+        keys[index] = hash ^ entry;
+    }
+
+    /**
+     * Returns the start and end squares of the best move of the given entry,
+     * as given by Moves.squares, or 0 if there is none.
+     *
+     * @param  entry  the packed data of an entry
+     * @return        the start and end squares of the best move, or 0
+     */
+    public static int move(long entry) {
+        return (int) (entry >>> 16) & 0xFFF;
+    }
+
+    /**
+     * Returns the score of the given entry, relative to the root of a search
+     * that reaches its position at the given ply.
+     *
+     * @param  entry  the packed data of an entry
+     * @param  ply    the ply the position of the entry is reached at
+     * @return        the score of the entry
+     */
+    public static int score(long entry, int ply) {
+        return Scores.fromTable((short) entry, ply);
+    }
+
+    /**
+     * Returns the depth searched for the given entry.
+     *
+     * @param  entry  the packed data of an entry
+     * @return        the depth searched for the entry
+     */
+    public static int depth(long entry) {
+        return (int) (entry >>> 28) & 0xFF;
+    }
+
+    /**
+     * Returns the bound type of the score of the given entry.
+     *
+     * @param  entry  the packed data of an entry
+     * @return        EXACT, LOWER, or UPPER
+     */
+    public static int bound(long entry) {
+        return (int) (entry >>> 36) & 3;
+    }
+
+    /**
+     * Returns the age of the search that stored the given entry.
+     *
+     * @param  entry  the packed data of an entry
+     * @return        the age of the search that stored the entry
+     */
+    private static int age(long entry) {
+        return (int) (entry >>> 38) & 63;
+    }
+}
@@ -0,0 +1,471 @@
+package chess.search;
+
+import chess.*;
+import chess.bitboard.*;
+import chess.pieces.*;
+import chess.heuristics.*;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * A parallel search that finds exactly the same best move, value, and root
+ * order as a deterministic Searcher searching serially, whatever the number
+ * of threads. It is that Searcher, with its transposition table, move
+ * ordering, and selective search, with the younger brothers of its nodes
+ * split between threads.
+ *
+ * At each node with enough depth left, the first move is searched on its
+ * own, and only then are its younger brothers, the remaining moves, forked
+ * as fork/join tasks, each searched by a worker searcher on its own board.
+ * Every brother is searched with the window left by the first move, and the
+ * results are taken in move order, as the serial loop over the moves would
+ * take them. A result is only used if its brother was searched with the
+ * window the serial loop would have searched it with. Once a brother raises
+ * alpha, the brothers after it are cancelled and forked again with the new
+ * window, and once a brother fails high, the brothers after it are
+ * cancelled.
+ *
+ * This works because a deterministic searcher only changes its table and
+ * move ordering between passes over the root, so what a brother finds only
+ * depends on its position and window. The table stores and cutoffs of each
+ * task are kept with its result and added in move order to those of the
+ * node it was forked from, so a pass ends with the same writes, in the same
+ * order, as the serial search.
+ *
+ * The worker searchers and the lists of writes are kept in pools shared by
+ * the threads, so splitting a node copies a position into a worker instead
+ * of allocating a new board and buffers for each brother.
+ */
+public final class YoungBrothersWait implements RootMoves {
+    /**
+     * The least depth left at a node for its younger brothers to be searched
+     * in parallel. Shallower nodes are searched serially.
+     */
+    static final int MIN_SPLIT_DEPTH = 3;
+
+    /**
+     * The pool the tasks of the search run in.
+     */
+    private final ForkJoinPool pool;
+
+    /**
+     * The deterministic searcher that searches the root.
+     */
+    private final Searcher main;
+
+    /**
+     * The worker searchers not in use by a task.
+     */
+    private final Queue<Searcher> workers;
+
+    /**
+     * The lists of writes not in use by a task.
+     */
+    private final Queue<DeferredWrites> writes;
+
+    /**
+     * The root of the tree of parallel searches of the current search, which
+     * is cancelled when the search is stopped.
+     */
+    private volatile Node root;
+
+    /**
+     * Whether the search has been stopped.
+     */
+    private volatile boolean stopped;
+
+    /**
+     * Constructs a new search of the given board that evaluates board states
+     * with the given heuristic, uses the given transposition table, searches
+     * selectively as set in the given options, and runs on the given number
+     * of threads.
+     *
+     * @param  board      the board to search from
+     * @param  heuristic  the heuristic to evaluate board states with
+     * @param  table      the transposition table to use
+     * @param  options    the settings of the selective parts of the search
+     * @param  threads    the number of threads to search with
+     * @throws IllegalArgumentException if threads is less than 1
+     */
+    public YoungBrothersWait(Board board, Heuristic heuristic, TranspositionTable table,
+                             SearchOptions options, int threads) {
+        pool = new ForkJoinPool(threads);
+        main = new Searcher(board, heuristic, table, options);
+        main.setDeterministic(true);
+        workers = new ConcurrentLinkedQueue<>();
+        writes = new ConcurrentLinkedQueue<>();
+        resume();
+    }
+
+    /**
+     * Returns the number of threads this search runs on.
+     *
+     * @return the number of threads this search runs on
+     */
+    public int getThreads() {
+        return pool.getParallelism();
+    }
+
+    /**
+     * Returns the deterministic searcher that searches the root, which holds
+     * the results and statistics of the last search. Its node count includes
+     * the nodes of every thread.
+     *
+     * @return the searcher of the root
+     */
+    public Searcher getSearcher() {
+        return main;
+    }
+
+    /**
+     * Stops the current search, or the next one if none is running, as soon
+     * as possible. Safe to call from any thread.
+     */
+    public void stop() {
+        stopped = true;
+        main.stop();
+        root.cancel();
+    }
+
+    /**
+     * Clears the stopped flag, so that the next search runs to completion.
+     */
+    public void resume() {
+        stopped = false;
+        root = new Node(null);
+        main.setSplitter(getThreads() > 1 ? this : null, root);
+    }
+
+    /**
+     * Shuts down the threads of this search. Must not be called while a
+     * search is running, and no search can be run afterwards.
+     */
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    /**
+     * Searches every move the player of the given color can make on the board
+     * of this search with iterative deepening up to the given depth, and
+     * returns the value of the board for that player. If the search is
+     * stopped, the results of the last completed iteration are kept, as by
+     * Searcher.searchRoot, and Scores.NONE is returned.
+     *
+     * @param  color  the color of the player to move
+     * @param  depth  the depth to search to, from 1 to Searcher.MAX_DEPTH
+     * @return        the value of the board for the given color, or
+     *                Scores.NONE if the search was stopped
+     */
+    public int search(Piece.Color color, int depth) {
+        main.start(color);
+        // A stop before the searcher was started is only seen in the flag
+        if (stopped) {
+            main.stop();
+        }
+        return pool.invoke(ForkJoinTask.adapt(() -> {
+            int value = Scores.NONE;
+            for (int i = 1; i <= depth; i++) {
+                value = main.searchRoot(color, i);
+                if (value == Scores.NONE) {
+                    break;
+                }
+            }
+            return value;
+        }));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int rootCount() {
+        return main.rootCount();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int rootMove(int index) {
+        return main.rootMove(index);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int rootValue(int index) {
+        return main.rootValue(index);
+    }
+
+    /**
+     * Forks a task that searches a younger brother of a node of the given
+     * searcher, which must be running in the pool of this search.
+     *
+     * @param  parent     the searcher of the node, which stays at the node
+     *                    until the task has been joined
+     * @param  node       the place in the tree of parallel searches of what
+     *                    the searcher is searching
+     * @param  color      the color of the player making the move
+     * @param  ply        the ply of the node
+     * @param  depth      the depth left at the node
+     * @param  alpha      the alpha value for alpha-beta pruning
+     * @param  beta       the beta value for alpha-beta pruning
+     * @param  move       the packed move to search
+     * @param  reduction  the number of plies to reduce the search of the move
+     *                    by at first
+     * @return            the forked task
+     */
+    Brother fork(Searcher parent, Node node, Piece.Color color, int ply, int depth, int alpha,
+                 int beta, int move, int reduction) {
+        Brother brother = new Brother(parent, new Node(node), color, ply, depth, alpha, beta,
+                                      move, reduction);
+        brother.fork();
+        return brother;
+    }
+
+    /**
+     * Returns the list of writes of the given joined task to the pool once
+     * its writes have been taken on.
+     *
+     * @param brother  the joined task
+     */
+    void release(Brother brother) {
+        if (brother.writes != null) {
+            brother.writes.clear();
+            writes.add(brother.writes);
+            brother.writes = null;
+        }
+    }
+
+    /**
+     * The place of a task in the tree of parallel searches. A task is
+     * cancelled when it is cancelled itself or when the task it was forked
+     * from is, and every task is cancelled when the search is stopped.
+     */
+    static final class Node {
+        /**
+         * The node of the task this node's task was forked from, or null for
+         * the root.
+         */
+        private final Node parent;
+
+        /**
+         * Whether this node's task has been cancelled.
+         */
+        private volatile boolean cancelled;
+
+        /**
+         * Constructs a new node for a task forked from the task of the given
+         * node.
+         *
+         * @param parent  the node of the task forked from, or null for the root
+         */
+        private Node(Node parent) {
+            this.parent = parent;
+        }
+
+        /**
+         * Cancels the task of this node and every task forked from it.
+         */
+        private void cancel() {
+            cancelled = true;
+        }
+
+        /**
+         * Returns true if the task of this node has been cancelled, false
+         * otherwise.
+         *
+         * @return true if the task of this node has been cancelled
+         */
+        boolean isCancelled() {
+            for (Node n = this; n != null; n = n.parent) {
+                if (n.cancelled) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * A task that searches one younger brother with a worker searcher from
+     * the pool, and keeps what it found for the searcher it was forked from.
+     */
+    final class Brother extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * The searcher of the node this task was forked from.
+         */
+        private final Searcher parent;
+
+        /**
+         * The place of this task in the tree of parallel searches.
+         */
+        private final Node node;
+
+        /**
+         * The color of the player making the move.
+         */
+        private final Piece.Color color;
+
+        /**
+         * The ply of the node and the depth left at it.
+         */
+        private final int ply;
+        private final int depth;
+
+        /**
+         * The alpha and beta values for alpha-beta pruning.
+         */
+        private final int alpha;
+        private final int beta;
+
+        /**
+         * The packed move to search, and the number of plies to reduce its
+         * search by at first.
+         */
+        private final int move;
+        private final int reduction;
+
+        /**
+         * The value of the move for the player making it.
+         */
+        private int value;
+
+        /**
+         * The number of nodes searched by this task.
+         */
+        private long nodes;
+
+        /**
+         * The principal variation of the node after the move.
+         */
+        private int[] variation;
+
+        /**
+         * The table stores and cutoffs of this task, or null once they have
+         * been returned to the pool.
+         */
+        private DeferredWrites writes;
+
+        /**
+         * Constructs a new task that searches the given move of a node of the
+         * given searcher.
+         *
+         * @param parent     the searcher of the node
+         * @param node       the place of this task in the tree of parallel
+         *                   searches
+         * @param color      the color of the player making the move
+         * @param ply        the ply of the node
+         * @param depth      the depth left at the node
+         * @param alpha      the alpha value for alpha-beta pruning
+         * @param beta       the beta value for alpha-beta pruning
+         * @param move       the packed move to search
+         * @param reduction  the number of plies to reduce the search of the move
+         *                   by at first
+         */
+        private Brother(Searcher parent, Node node, Piece.Color color, int ply, int depth,
+                        int alpha, int beta, int move, int reduction) {
+            this.parent = parent;
+            this.node = node;
+            this.color = color;
+            this.ply = ply;
+            this.depth = depth;
+            this.alpha = alpha;
+            this.beta = beta;
+            this.move = move;
+            this.reduction = reduction;
+            variation = new int[0];
+        }
+
+        /**
+         * Returns the alpha value this task searches its move with.
+         *
+         * @return the alpha value of this task
+         */
+        int getAlpha() {
+            return alpha;
+        }
+
+        /**
+         * Returns the value of the move of this task for the player making it.
+         * Only meaningful once the task has been joined without being
+         * cancelled.
+         *
+         * @return the value of the move of this task
+         */
+        int getValue() {
+            return value;
+        }
+
+        /**
+         * Returns the number of nodes this task searched.
+         *
+         * @return the number of nodes searched by this task
+         */
+        long getNodes() {
+            return nodes;
+        }
+
+        /**
+         * Returns the table stores and cutoffs of this task, in the order
+         * they were made.
+         *
+         * @return the writes of this task
+         */
+        DeferredWrites getWrites() {
+            return writes;
+        }
+
+        /**
+         * Copies the principal variation of the node after the move of this
+         * task into the given array and returns its length.
+         *
+         * @param  into  the array to copy the variation into
+         * @return       the number of moves in the variation
+         */
+        int getVariation(int[] into) {
+            System.arraycopy(variation, 0, into, 0, variation.length);
+            return variation.length;
+        }
+
+        /**
+         * Cancels this task, so that it finishes as soon as possible. Its
+         * results can no longer be used.
+         */
+        void cancel() {
+            node.cancel();
+        }
+
+        /**
+         * Searches the move of this task with a worker searcher set to the
+         * position of the node it was forked from.
+         */
+        @Override
+        protected void compute() {
+            writes = YoungBrothersWait.this.writes.poll();
+            if (writes == null) {
+                writes = new DeferredWrites();
+            }
+            if (node.isCancelled()) {
+                return;
+            }
+            Searcher worker = workers.poll();
+            if (worker == null) {
+                worker = new Searcher(main, YoungBrothersWait.this);
+            }
+            try {
+                worker.prepare(parent.getBoard().getPosition(), node, writes);
+                long before = worker.getNodes();
+                value = worker.searchBrother(color, ply, depth, alpha, beta, move, reduction);
+                nodes = worker.getNodes() - before;
+                variation = worker.variation(ply + 1);
+            } finally {
+                workers.add(worker);
+            }
+        }
+    }
+}